@@ -0,0 +1,41 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board copying and in-place make/unmake
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Benchmark
+    public ChessBoard copy(Positions p) {
+        return new ChessBoard(p.game.getBoard());
+    }
+
+    /**
+     * Makes and unmakes every legal move in the position once
+     */
+    @Benchmark
+    public void makeUnmakeAll(Positions p, MoveBuffer buffer, Blackhole bh) {
+        ChessBoard board = p.game.getBoard();
+        MoveList moves = buffer.moves;
+        moves.clear();
+        MoveGenerator.generate(board, moves);
+        for(int i = 0; i < moves.size(); i++){
+            long undo = board.makeMove(moves.get(i));
+            bh.consume(board.getKey());
+            board.unmakeMove(undo);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package chess.benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game status queries and ChessGame.makeMove
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @State(Scope.Thread)
+    public static class MoveState {
+        ChessBoard start;
+        ChessMove move;
+
+        @Setup
+        public void pick(Positions p) {
+            start = new ChessBoard(p.game.getBoard());
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(start, moves);
+            move = Move.toChessMove(moves.get(moves.size() / 2));
+        }
+    }
+
+    /**
+     * Packed legal moves for the whole side to move, without ChessMove objects
+     */
+    @Benchmark
+    public MoveList legalMoves(Positions p, MoveBuffer buffer) {
+        MoveList moves = buffer.moves;
+        moves.clear();
+        MoveGenerator.generate(p.game.getBoard(), moves);
+        return moves;
+    }
+
+    /**
+     * The status queries below first mark the board changed, so the game
+     * generates its legal moves again instead of answering from its cache,
+     * as it must after every move; the Cached variants measure the cache hit
+     */
+    @Benchmark
+    public boolean isInCheck(Positions p) {
+        ChessGame game = p.game;
+        game.getBoard().setTeamTurn(game.getTeamTurn());
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate(Positions p) {
+        ChessGame game = p.game;
+        game.getBoard().setTeamTurn(game.getTeamTurn());
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate(Positions p) {
+        ChessGame game = p.game;
+        game.getBoard().setTeamTurn(game.getTeamTurn());
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckCached(Positions p) {
+        return p.game.isInCheck(p.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmateCached(Positions p) {
+        return p.game.isInCheckmate(p.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemateCached(Positions p) {
+        return p.game.isInStalemate(p.game.getTeamTurn());
+    }
+
+    /**
+     * Status of a position the game has not seen yet, so it is computed
+     * rather than served from the cache
+     */
+    @Benchmark
+    public GameStatus gameStatus(Positions p) {
+        ChessGame game = p.game;
+        game.getBoard().setTeamTurn(game.getTeamTurn());
+        return game.getGameStatus();
+    }
+
+    /**
+     * Copies the starting board back in and plays one move; subtract
+     * BoardBenchmark.copy to isolate makeMove itself
+     */
+    @Benchmark
+    public ChessGame makeMove(Positions p, MoveState s) throws InvalidMoveException {
+        ChessGame game = p.game;
+        game.setTeamTurn(s.start.getTeamTurn());
+        game.setBoard(new ChessBoard(s.start));
+        game.makeMove(s.move);
+        return game;
+    }
+}
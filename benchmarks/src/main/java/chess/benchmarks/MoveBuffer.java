@@ -0,0 +1,15 @@
+package chess.benchmarks;
+
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A MoveList kept across invocations, so benchmarks that generate moves do
+ * not count allocating the list under -prof gc. Callers clear it first.
+ */
+@State(Scope.Thread)
+public class MoveBuffer {
+
+    public final MoveList moves = new MoveList();
+}
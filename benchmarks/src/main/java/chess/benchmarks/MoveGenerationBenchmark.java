@@ -0,0 +1,73 @@
+package chess.benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pieceMoves for each piece type and validMoves for the side to move
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    /**
+     * Calls pieceMoves for every piece of this type, both colors
+     */
+    @Benchmark
+    public void pieceMoves(Positions p, Blackhole bh) {
+        ChessBoard board = p.game.getBoard();
+        for(int row = 1; row <= 8; row++){
+            for(int col = 1; col <= 8; col++){
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if(piece != null && piece.getPieceType() == type){
+                    bh.consume(piece.pieceMoves(board, position));
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls validMoves for every piece of the side to move, marking the board
+     * changed before each call so the legal moves are generated every time
+     */
+    @Benchmark
+    public void validMoves(Positions p, Blackhole bh) {
+        validMoves(p.game, bh, true);
+    }
+
+    /**
+     * Calls validMoves for every piece of the side to move, served from the
+     * game's legal move cache after the first
+     */
+    @Benchmark
+    public void validMovesCached(Positions p, Blackhole bh) {
+        validMoves(p.game, bh, false);
+    }
+
+    private void validMoves(ChessGame game, Blackhole bh, boolean invalidate) {
+        ChessBoard board = game.getBoard();
+        for(int row = 1; row <= 8; row++){
+            for(int col = 1; col <= 8; col++){
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if(piece != null && piece.getPieceType() == type && piece.getTeamColor() == game.getTeamTurn()){
+                    if(invalidate){
+                        board.setTeamTurn(game.getTeamTurn());
+                    }
+                    bh.consume(game.validMoves(position));
+                }
+            }
+        }
+    }
+}
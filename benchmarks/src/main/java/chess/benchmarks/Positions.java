@@ -0,0 +1,37 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Corpus of representative positions shared by the benchmarks. JMH runs each
+ * benchmark once per position name, so results can be compared per phase of
+ * the game.
+ */
+@State(Scope.Thread)
+public class Positions {
+
+    static final Map<String, String> FENS = Map.of(
+            "opening", Fen.START,
+            "middlegame", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "quiet", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "check", "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+            "endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    );
+
+    @Param({"opening", "middlegame", "quiet", "check", "endgame"})
+    public String position;
+
+    public ChessGame game;
+
+    @Setup
+    public void load() {
+        game = ChessGame.fromFen(FENS.get(position));
+    }
+}
@@ -0,0 +1,67 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trips of a whole ChessGame, as the server stores and sends them,
+ * against the compact binary codec
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Json {
+        final Gson gson = new Gson();
+        String json;
+
+        @Setup
+        public void encode(Positions p) {
+            json = gson.toJson(p.game);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Binary {
+        final ByteBuffer buffer = ByteBuffer.allocate(GameCodec.SIZE);
+        final ChessGame game = new ChessGame();
+
+        @Setup
+        public void encode(Positions p) {
+            GameCodec.encode(p.game, buffer);
+        }
+    }
+
+    @Benchmark
+    public String toJson(Positions p, Json j) {
+        return j.gson.toJson(p.game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson(Json j) {
+        return j.gson.fromJson(j.json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ByteBuffer encode(Positions p, Binary b) {
+        b.buffer.clear();
+        GameCodec.encode(p.game, b.buffer);
+        return b.buffer;
+    }
+
+    @Benchmark
+    public ChessGame decode(Binary b) {
+        b.buffer.rewind();
+        GameCodec.decode(b.buffer, b.game);
+        return b.game;
+    }
+}
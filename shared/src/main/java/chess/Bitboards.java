@@ -0,0 +1,133 @@
+package chess;
+
+/**
+ * Bitboard constants and attack tables shared by the board and move generation.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so square
+ * (row, column) on a ChessPosition is (row-1)*8 + (column-1).
+ */
+final class Bitboards {
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_2 = RANK_1 << 8;
+    static final long RANK_7 = RANK_1 << 48;
+    static final long RANK_8 = RANK_1 << 56;
+    //b1, d1, a2 and so on; a1 is a dark square
+    static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    static final int[][] ROOK_DIRECTIONS = {{1,0}, {-1,0},{0,1},{0,-1}};
+    static final int[][] BISHOP_DIRECTIONS = {{1,1}, {-1,-1},{1,-1},{-1,1}};
+
+    //attacks on an empty board, used to skip slider lookups that cannot hit
+    static final long[] ROOK_RAYS = new long[64];
+    static final long[] BISHOP_RAYS = new long[64];
+    //squares strictly between two aligned squares, and the full line through them
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    //indexed by TeamColor ordinal
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    static {
+        int[][] knight = {{2,1}, {-2,1},{2,-1},{-2,-1}, {1,2},{1,-2},{-1,2},{-1,-2}};
+        int[][] king = {{1,0},{1,1},{0,1},{1,-1},{-1,0}, {-1,-1},{0,-1},{-1,1}};
+        for(int sq = 0; sq < 64; sq++){
+            KNIGHT_ATTACKS[sq] = jumps(sq, knight);
+            KING_ATTACKS[sq] = jumps(sq, king);
+            PAWN_ATTACKS[0][sq] = jumps(sq, new int[][]{{1,-1},{1,1}});
+            PAWN_ATTACKS[1][sq] = jumps(sq, new int[][]{{-1,-1},{-1,1}});
+            ROOK_RAYS[sq] = slide(sq, 0L, ROOK_DIRECTIONS);
+            BISHOP_RAYS[sq] = slide(sq, 0L, BISHOP_DIRECTIONS);
+        }
+        for(int a = 0; a < 64; a++){
+            for(int[][] directions : new int[][][]{ROOK_DIRECTIONS, BISHOP_DIRECTIONS}){
+                for(int[] d : directions){
+                    long line = slide(a, 0L, new int[][]{d, {-d[0], -d[1]}}) | (1L << a);
+                    long between = 0L;
+                    int row = (a >>> 3) + d[0];
+                    int col = (a & 7) + d[1];
+                    while(row >= 0 && row < 8 && col >= 0 && col < 8){
+                        int target = row * 8 + col;
+                        BETWEEN[a][target] = between;
+                        LINE[a][target] = line;
+                        between |= 1L << target;
+                        row += d[0];
+                        col += d[1];
+                    }
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static long jumps(int sq, int[][] directions){
+        long r = 0L;
+        for(int[] d : directions){
+            int row = (sq >>> 3) + d[0];
+            int col = (sq & 7) + d[1];
+            if(row >= 0 && row < 8 && col >= 0 && col < 8){
+                r |= 1L << (row * 8 + col);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Walks each direction from sq until it runs off the board or hits an
+     * occupied square, which is included in the result. Only used to fill
+     * the magic tables; lookups go through rookAttacks and bishopAttacks.
+     */
+    static long slide(int sq, long occupied, int[][] directions){
+        long r = 0L;
+        for(int[] d : directions){
+            int row = (sq >>> 3) + d[0];
+            int col = (sq & 7) + d[1];
+            while(row >= 0 && row < 8 && col >= 0 && col < 8){
+                long bit = 1L << (row * 8 + col);
+                r |= bit;
+                if((occupied & bit) != 0){
+                    break;
+                }
+                row += d[0];
+                col += d[1];
+            }
+        }
+        return r;
+    }
+
+    static long rookAttacks(int sq, long occupied){
+        return MagicBitboards.rookAttacks(sq, occupied);
+    }
+
+    static long bishopAttacks(int sq, long occupied){
+        return MagicBitboards.bishopAttacks(sq, occupied);
+    }
+
+    static long queenAttacks(int sq, long occupied){
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    static int square(ChessPosition position){
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    static ChessPosition position(int sq){
+        return ChessPosition.SQUARES[sq];
+    }
+
+    /**
+     * @return index 0-11 of the piece's occupancy mask, white pieces first
+     */
+    static int index(ChessGame.TeamColor color, ChessPiece.PieceType type){
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static int index(ChessPiece piece){
+        return index(piece.getTeamColor(), piece.getPieceType());
+    }
+}
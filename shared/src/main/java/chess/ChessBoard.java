@@ -1,5 +1,7 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
 
 /**
@@ -8,20 +10,114 @@ import java.util.Arrays;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(DerivedStateAdapterFactory.class)
 public class ChessBoard {
 
     ChessPiece[][] pieces;
+    //everything from here to pawnKey is derived from pieces, so it stays out
+    //of JSON and is rebuilt after reading (see DerivedStateAdapterFactory)
+    //occupancy per piece, indexed by Bitboards.index(color, type)
+    transient long[] pieceBB;
+    //occupancy per team, indexed by TeamColor ordinal
+    transient long[] colorBB;
+    transient long occupied;
+    //number of each piece on the board, indexed like pieceBB
+    transient int[] pieceCounts;
+    //material plus piece-square totals from white's side (see PieceSquareTables), and the game phase
+    transient int mgScore;
+    transient int egScore;
+    transient int phase;
+    //square of each team's king, or -1 if it has none
+    transient int[] kingSquares;
+    //Zobrist hash of the piece placement alone
+    transient long pieceKey;
+    //Zobrist hash of just the pawns, for caching pawn structure evaluation
+    transient long pawnKey;
+    ChessGame.TeamColor turn;
+    //castling rights not yet lost to a king or rook move, as a mask of the
+    //constants below; a right only counts while its king and rook are home
+    int castlingRights;
+    //square a pawn can be captured on en passant, or -1
+    int epSquare;
+    //plies since the last capture or pawn move
+    int halfmoveClock;
+    //starts at 1 and goes up after each black move
+    int fullmoveNumber;
+    //bumped on every change so callers can tell when cached results are stale
+    transient long version;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 0xF;
+    //game phase with all the pieces still on the board
+    public static final int MAX_GAME_PHASE = 24;
+
+    //rights kept when a piece moves from or to each square (rook and king home squares clear theirs)
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+    }
+
+    //undo record layout: the packed move in the low 16 bits, then the fields below
+    private static final long UNDO_MOVE_MASK = 0xFFFF;
+    private static final int UNDO_CAPTURED_SHIFT = 16;
+    private static final int UNDO_CASTLING_SHIFT = 20;
+    //stored as epSquare + 1 so that 0 means none
+    private static final int UNDO_EP_SHIFT = 24;
+    //16 bits wide, which is why the clock stops at MAX_HALFMOVE_CLOCK
+    private static final int UNDO_HALFMOVE_SHIFT = 32;
+    //set when the move also moved a rook or removed a pawn en passant
+    private static final long UNDO_CASTLE = 1L << 48;
+    private static final long UNDO_EN_PASSANT = 1L << 49;
+    private static final int NO_PIECE = 0xF;
+
+    /**
+     * The largest halfmove clock a board holds; moves past it leave the clock
+     * there, long after every move-rule draw has applied
+     */
+    public static final int MAX_HALFMOVE_CLOCK = 0xFFFF;
+
     public ChessBoard() {
         pieces = new ChessPiece[8][8];
+        pieceBB = new long[12];
+        colorBB = new long[2];
+        pieceCounts = new int[12];
+        kingSquares = new int[]{-1, -1};
+        turn = ChessGame.TeamColor.WHITE;
+        castlingRights = ALL_CASTLING;
+        epSquare = -1;
+        fullmoveNumber = 1;
     }
 
     public ChessBoard(ChessBoard b) {
-        pieces = new ChessPiece[8][8];
+        pieces = new ChessPiece[8][];
         for(int i = 0; i < 8; i++){
-            for(int j = 0; j < 8; j++){
-                pieces[i][j] = b.getPiece(new ChessPosition(i+1,j+1));
-            }
+            pieces[i] = b.pieces[i].clone();
         }
+        pieceBB = b.pieceBB.clone();
+        colorBB = b.colorBB.clone();
+        occupied = b.occupied;
+        pieceCounts = b.pieceCounts.clone();
+        mgScore = b.mgScore;
+        egScore = b.egScore;
+        phase = b.phase;
+        kingSquares = b.kingSquares.clone();
+        pieceKey = b.pieceKey;
+        pawnKey = b.pawnKey;
+        turn = b.turn;
+        castlingRights = b.castlingRights;
+        epSquare = b.epSquare;
+        halfmoveClock = b.halfmoveClock;
+        fullmoveNumber = b.fullmoveNumber;
     }
 
     /**
@@ -29,11 +125,304 @@ public class ChessBoard {
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
+     * @throws IndexOutOfBoundsException if position is off the board
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        pieces[position.getRow()-1][position.getColumn()-1] = piece;
+        setPiece(square(position), piece);
+    }
+
+    /**
+     * Bitboards.square, but refusing positions off the board, which it would
+     * otherwise wrap onto some other square
+     */
+    private static int square(ChessPosition position) {
+        if(!position.valid()){
+            throw new IndexOutOfBoundsException("Off the board: row " + position.getRow() + ", column " + position.getColumn());
+        }
+        return Bitboards.square(position);
+    }
+
+    void setPiece(int sq, ChessPiece piece) {
+        version++;
+        long bit = 1L << sq;
+        ChessPiece old = pieces[sq >>> 3][sq & 7];
+        if(old != null){
+            int index = Bitboards.index(old);
+            pieceBB[index] &= ~bit;
+            colorBB[old.getTeamColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+            pieceCounts[index]--;
+            mgScore -= PieceSquareTables.MG[index][sq];
+            egScore -= PieceSquareTables.EG[index][sq];
+            phase -= PieceSquareTables.PHASE[index];
+            pieceKey ^= Zobrist.PIECE_SQUARE[index][sq];
+            if(old.getPieceType() == ChessPiece.PieceType.PAWN){
+                pawnKey ^= Zobrist.PIECE_SQUARE[index][sq];
+            }
+            if(old.getPieceType() == ChessPiece.PieceType.KING && kingSquares[old.getTeamColor().ordinal()] == sq){
+                //fall back to any other king of that color still on the board
+                kingSquares[old.getTeamColor().ordinal()] = pieceBB[index] == 0 ? -1 : Long.numberOfTrailingZeros(pieceBB[index]);
+            }
+        }
+        if(piece != null){
+            int index = Bitboards.index(piece);
+            pieceBB[index] |= bit;
+            pieceCounts[index]++;
+            mgScore += PieceSquareTables.MG[index][sq];
+            egScore += PieceSquareTables.EG[index][sq];
+            phase += PieceSquareTables.PHASE[index];
+            pieceKey ^= Zobrist.PIECE_SQUARE[index][sq];
+            colorBB[piece.getTeamColor().ordinal()] |= bit;
+            occupied |= bit;
+            if(piece.getPieceType() == ChessPiece.PieceType.PAWN){
+                pawnKey ^= Zobrist.PIECE_SQUARE[index][sq];
+            }
+            if(piece.getPieceType() == ChessPiece.PieceType.KING){
+                kingSquares[piece.getTeamColor().ordinal()] = sq;
+            }
+        }
+        pieces[sq >>> 3][sq & 7] = piece;
+    }
+
+    /**
+     * Plays a move on this board in place. The move is not checked for
+     * legality.
+     *
+     * @param move the move to play
+     * @return an undo record to pass to unmakeMove to take the move back
+     */
+    public long makeMove(ChessMove move) {
+        return makeMove(Move.encode(move));
+    }
+
+    /**
+     * Plays a packed move (see Move) on this board in place. The move is not
+     * checked for legality.
+     *
+     * @param move the packed move to play
+     * @return an undo record to pass to unmakeMove to take the move back
+     */
+    public long makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moving = getPiece(from);
+        ChessPiece captured = getPiece(to);
+
+        long undo = move | (long) (captured == null ? NO_PIECE : Bitboards.index(captured)) << UNDO_CAPTURED_SHIFT;
+        undo |= (long) castlingRights << UNDO_CASTLING_SHIFT;
+        undo |= (long) (epSquare + 1) << UNDO_EP_SHIFT;
+        undo |= (long) halfmoveClock << UNDO_HALFMOVE_SHIFT;
+
+        boolean pawn = moving.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = pawn || captured != null ? 0 : Math.min(halfmoveClock + 1, MAX_HALFMOVE_CLOCK);
+        if(turn == ChessGame.TeamColor.BLACK){
+            fullmoveNumber++;
+        }
+
+        if(pawn && to == epSquare && ((from ^ to) & 7) != 0){
+            //en passant: the captured pawn sits beside the start square, not on the target
+            undo |= UNDO_EN_PASSANT;
+            setPiece(to ^ 8, null);
+        }
+        else if(moving.getPieceType() == ChessPiece.PieceType.KING && Math.abs(from - to) == 2){
+            //castling: the rook hops over to the square the king passed through
+            undo |= UNDO_CASTLE;
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = (from + to) >>> 1;
+            setPiece(rookTo, getPiece(rookFrom));
+            setPiece(rookFrom, null);
+        }
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        epSquare = pawn && (from ^ to) == 16 ? (from + to) >>> 1 : -1;
+
+        if(Move.isPromotion(move)){
+            moving = ChessPiece.of(moving.getTeamColor(), Move.promotion(move));
+        }
+
+        setPiece(to, moving);
+        setPiece(from, null);
+        toggleTurn();
+        return undo;
+    }
+
+    /**
+     * Takes back a move played with makeMove. Moves must be unmade in the
+     * reverse order they were made.
+     *
+     * @param undo the record returned by makeMove
+     */
+    public void unmakeMove(long undo) {
+        int move = move(undo);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = (int) ((undo >>> UNDO_CAPTURED_SHIFT) & 0xF);
+        ChessPiece moved = getPiece(to);
+        if(Move.isPromotion(move)){
+            moved = ChessPiece.of(moved.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+
+        setPiece(from, moved);
+        setPiece(to, captured == NO_PIECE ? null : ChessPiece.PIECES[captured]);
+        if((undo & UNDO_EN_PASSANT) != 0){
+            ChessGame.TeamColor them = moved.getTeamColor() == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            setPiece(to ^ 8, ChessPiece.of(them, ChessPiece.PieceType.PAWN));
+        }
+        else if((undo & UNDO_CASTLE) != 0){
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = (from + to) >>> 1;
+            setPiece(rookFrom, getPiece(rookTo));
+            setPiece(rookTo, null);
+        }
+        toggleTurn();
+        castlingRights = (int) ((undo >>> UNDO_CASTLING_SHIFT) & 0xF);
+        epSquare = (int) ((undo >>> UNDO_EP_SHIFT) & 0x7F) - 1;
+        halfmoveClock = (int) ((undo >>> UNDO_HALFMOVE_SHIFT) & 0xFFFF);
+        if(turn == ChessGame.TeamColor.BLACK){
+            fullmoveNumber--;
+        }
     }
 
+    /**
+     * @return the packed move an undo record from makeMove takes back
+     */
+    static int move(long undo) {
+        return (int) (undo & UNDO_MOVE_MASK);
+    }
+
+    private void toggleTurn() {
+        version++;
+        turn = turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * @return which team moves next on this board
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return turn;
+    }
+
+    /**
+     * @return a counter that changes whenever the board does
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets which team moves next on this board
+     *
+     * @param team the team whose turn it is
+     */
+    public void setTeamTurn(ChessGame.TeamColor team) {
+        version++;
+        turn = team;
+    }
+
+    /**
+     * @return Zobrist hash of this position, covering piece placement, the
+     * side to move, castling rights and the en passant square
+     */
+    public long getKey() {
+        long key = pieceKey ^ Zobrist.CASTLING[getCastlingRights()];
+        if(turn == ChessGame.TeamColor.BLACK){
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if(enPassantCapturable()){
+            key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        }
+        return key;
+    }
+
+    /**
+     * @return True if a pawn of the side to move stands next to the en
+     * passant square, so the en passant state actually matters
+     */
+    boolean enPassantCapturable() {
+        if(epSquare < 0){
+            return false;
+        }
+        ChessGame.TeamColor them = turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return (Bitboards.PAWN_ATTACKS[them.ordinal()][epSquare] & pieceBB[Bitboards.index(turn, ChessPiece.PieceType.PAWN)]) != 0;
+    }
+
+    /**
+     * @return a Zobrist hash of where the pawns stand and nothing else, so
+     * positions with the same pawn structure share it; 0 with no pawns
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return the castling rights still available, as a mask of WHITE_KINGSIDE,
+     * WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE. A right only counts
+     * while its king and rook are still on their starting squares.
+     */
+    public int getCastlingRights() {
+        int rights = castlingRights;
+        long whiteRooks = pieceBB[Bitboards.index(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)];
+        long blackRooks = pieceBB[Bitboards.index(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)];
+        if((pieceBB[Bitboards.index(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)] & (1L << 4)) == 0){
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if((pieceBB[Bitboards.index(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)] & (1L << 60)) == 0){
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if((whiteRooks & (1L << 7)) == 0) rights &= ~WHITE_KINGSIDE;
+        if((whiteRooks & 1L) == 0) rights &= ~WHITE_QUEENSIDE;
+        if((blackRooks & (1L << 63)) == 0) rights &= ~BLACK_KINGSIDE;
+        if((blackRooks & (1L << 56)) == 0) rights &= ~BLACK_QUEENSIDE;
+        return rights;
+    }
+
+    public void setCastlingRights(int rights) {
+        version++;
+        castlingRights = rights & 0xF;
+    }
+
+    /**
+     * @return the square a pawn that just moved two squares passed over, or
+     * null if the last move was not a double pawn push
+     */
+    public ChessPosition getEnPassantSquare() {
+        return epSquare < 0 ? null : Bitboards.position(epSquare);
+    }
+
+    public void setEnPassantSquare(ChessPosition position) {
+        version++;
+        epSquare = position == null ? -1 : square(position);
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @throws IllegalArgumentException if plies is negative or above
+     *                                  MAX_HALFMOVE_CLOCK
+     */
+    public void setHalfmoveClock(int plies) {
+        if(plies < 0 || plies > MAX_HALFMOVE_CLOCK){
+            throw new IllegalArgumentException("Halfmove clock must be 0-" + MAX_HALFMOVE_CLOCK + ", not " + plies);
+        }
+        version++;
+        halfmoveClock = plies;
+    }
+
+    /**
+     * @return the move number, starting at 1 and increasing after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int number) {
+        version++;
+        fullmoveNumber = number;
+    }
 
     /**
      * Gets a chess piece on the chessboard
@@ -46,54 +435,248 @@ public class ChessBoard {
         return pieces[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * @param sq square index 0-63, as used by Move
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int sq) {
+        return pieces[sq >>> 3][sq & 7];
+    }
+
+    /**
+     * @return bitboard of the squares holding the given piece
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBB[Bitboards.index(color, type)];
+    }
+
+    /**
+     * @return how many of the given piece are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceCounts[Bitboards.index(color, type)];
+    }
+
+    /**
+     * @return material plus piece-square score for the middlegame, in
+     * centipawns from white's point of view, kept up to date as pieces move
+     */
+    public int getMidgameScore() {
+        return mgScore;
+    }
+
+    /**
+     * @return material plus piece-square score for the endgame, in
+     * centipawns from white's point of view
+     */
+    public int getEndgameScore() {
+        return egScore;
+    }
+
+    /**
+     * @return how much of the middlegame is left, from MAX_GAME_PHASE with
+     * every piece on the board down to 0 with only kings and pawns
+     */
+    public int getGamePhase() {
+        return Math.min(phase, MAX_GAME_PHASE);
+    }
+
+    /**
+     * Checks for positions where neither side can possibly checkmate: bare
+     * kings, a single knight, or any number of bishops that all stand on
+     * squares of the same color
+     *
+     * @return True if no sequence of legal moves can end in checkmate
+     */
+    public boolean hasInsufficientMaterial() {
+        if(countBoth(ChessPiece.PieceType.PAWN) + countBoth(ChessPiece.PieceType.ROOK) + countBoth(ChessPiece.PieceType.QUEEN) != 0){
+            return false;
+        }
+        int knights = countBoth(ChessPiece.PieceType.KNIGHT);
+        if(knights == 0){
+            long bishops = getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                    | getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+            return (bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & ~Bitboards.LIGHT_SQUARES) == 0;
+        }
+        return knights == 1 && countBoth(ChessPiece.PieceType.BISHOP) == 0;
+    }
+
+    private int countBoth(ChessPiece.PieceType type) {
+        return getPieceCount(ChessGame.TeamColor.WHITE, type) + getPieceCount(ChessGame.TeamColor.BLACK, type);
+    }
+
+    /**
+     * @return bitboard of the squares holding any piece of the given team
+     */
+    public long getTeamPieces(ChessGame.TeamColor color) {
+        return colorBB[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @param color the team whose king to find
+     * @return the position of that team's king, or null if it has none
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int sq = kingSquares[color.ordinal()];
+        return sq < 0 ? null : Bitboards.position(sq);
+    }
+
+    int kingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, probing
+     * outward from the square and stopping at the first attacker found
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if a piece of byColor could capture on position
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square(position), byColor);
+    }
+
+    boolean isSquareAttacked(int sq, ChessGame.TeamColor byColor) {
+        return attackersOf(sq, byColor, occupied) != 0;
+    }
+
+    /**
+     * @return True if the king of the side to move is attacked
+     */
+    public boolean isInCheck() {
+        int king = kingSquares[turn.ordinal()];
+        return king >= 0 && isSquareAttacked(king, turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+    }
+
+    /**
+     * @return bitboard of byColor pieces attacking sq, with sliders blocked by
+     * the given occupancy
+     */
+    long attackersOf(int sq, ChessGame.TeamColor byColor, long occupancy) {
+        int base = byColor.ordinal() * 6;
+        int defender = byColor == ChessGame.TeamColor.WHITE ? 1 : 0;
+        long attackers = Bitboards.KNIGHT_ATTACKS[sq] & pieceBB[base + ChessPiece.PieceType.KNIGHT.ordinal()];
+        attackers |= Bitboards.PAWN_ATTACKS[defender][sq] & pieceBB[base + ChessPiece.PieceType.PAWN.ordinal()];
+        attackers |= Bitboards.KING_ATTACKS[sq] & pieceBB[base + ChessPiece.PieceType.KING.ordinal()];
+        long queens = pieceBB[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieceBB[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        long bishops = pieceBB[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        if((rooks & Bitboards.ROOK_RAYS[sq]) != 0){
+            attackers |= Bitboards.rookAttacks(sq, occupancy) & rooks;
+        }
+        if((bishops & Bitboards.BISHOP_RAYS[sq]) != 0){
+            attackers |= Bitboards.bishopAttacks(sq, occupancy) & bishops;
+        }
+        return attackers;
+    }
+
+    /**
+     * Removes every piece from the board
+     */
+    public void clear() {
+        version++;
+        for(ChessPiece[] row : pieces){
+            Arrays.fill(row, null);
+        }
+        Arrays.fill(pieceBB, 0L);
+        Arrays.fill(colorBB, 0L);
+        occupied = 0L;
+        Arrays.fill(pieceCounts, 0);
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        Arrays.fill(kingSquares, -1);
+        pieceKey = 0L;
+        pawnKey = 0L;
+        castlingRights = ALL_CASTLING;
+        epSquare = -1;
+    }
+
+    /**
+     * Recomputes the state derived from pieces, for a board whose pieces were
+     * filled in directly, as Gson does. Pieces are swapped for the shared
+     * instances along the way.
+     */
+    void rebuild() {
+        ChessPiece[][] placed = pieces;
+        pieces = new ChessPiece[8][8];
+        Arrays.fill(pieceBB, 0L);
+        Arrays.fill(colorBB, 0L);
+        occupied = 0L;
+        Arrays.fill(pieceCounts, 0);
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        Arrays.fill(kingSquares, -1);
+        pieceKey = 0L;
+        pawnKey = 0L;
+        for(int sq = 0; sq < 64; sq++){
+            ChessPiece piece = placed == null || placed[sq >>> 3] == null ? null : placed[sq >>> 3][sq & 7];
+            if(piece != null && piece.getTeamColor() != null && piece.getPieceType() != null){
+                setPiece(sq, ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+            }
+        }
+        if(turn == null){
+            turn = ChessGame.TeamColor.WHITE;
+        }
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for(ChessPiece[] c : pieces){
-            for(ChessPiece p : c){
-                p = null;
-            }
-        }
+        clear();
+        turn = ChessGame.TeamColor.WHITE;
+        castlingRights = ALL_CASTLING;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
         //pawnswhite
-        pieces[1][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        pieces[1][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        addPiece(ChessPosition.of(2,1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(2,8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         //pawnsblack
-        pieces[6][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        pieces[6][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        addPiece(ChessPosition.of(7,1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        addPiece(ChessPosition.of(7,8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
 
         //white
-        pieces[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        pieces[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        pieces[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        pieces[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        pieces[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        pieces[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        pieces[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        pieces[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        addPiece(ChessPosition.of(1,1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1,2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1,3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1,4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1,5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1,6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1,7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1,8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
 
         //black
-        pieces[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        pieces[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        pieces[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        pieces[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        pieces[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        pieces[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        pieces[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        pieces[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        addPiece(ChessPosition.of(8,1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8,2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8,3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8,4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8,5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8,6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8,7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8,8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
     }
 
     @Override
@@ -118,11 +701,11 @@ public class ChessBoard {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(pieces, that.pieces);
+        return pieceKey == that.pieceKey && Arrays.equals(pieceBB, that.pieceBB);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(pieces);
+        return Long.hashCode(pieceKey);
     }
 }
@@ -1,5 +1,7 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -10,16 +12,86 @@ import java.util.HashSet;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(DerivedStateAdapterFactory.class)
 public class ChessGame {
 
     ChessBoard b;
     TeamColor color;
 
+    //legal moves for the side to move, valid while the board and turn match
+    private transient MoveList legalMoves;
+    private transient ChessBoard cachedBoard;
+    private transient long cachedVersion;
+    private transient TeamColor cachedColor;
+    private transient boolean cachedInCheck;
+    private transient GameStatus cachedStatus;
+
+    //plies of undo history kept per game
+    static final int HISTORY_PLIES = 1024;
+
+    //moves played on b, valid while nothing but this game has changed the board
+    private transient MoveHistory history;
+    private transient ChessBoard historyBoard;
+    private transient long historyVersion;
+
     public ChessGame() {
         b = new ChessBoard();
         b.resetBoard();
         color = TeamColor.WHITE;
+        legalMoves = new MoveList();
+        history = new MoveHistory(HISTORY_PLIES);
+
+    }
+
+    /**
+     * Returns the move history, first starting it over at ply 0 if the board
+     * was replaced or edited outside of makeMove, undo and redo
+     */
+    private MoveHistory history() {
+        if(historyBoard != b || historyVersion != b.getVersion()){
+            history.clear();
+            historyBoard = b;
+            historyVersion = b.getVersion();
+        }
+        return history;
+    }
+
+    /**
+     * Generates the legal moves for the side to move once per position and
+     * serves later calls from the cache until the board or turn changes
+     *
+     * @return the legal moves for the side to move
+     */
+    MoveList legalMoves() {
+        if(cachedBoard != b || cachedVersion != b.getVersion() || cachedColor != color){
+            legalMoves.clear();
+            MoveGenerator.generate(b, color, ~0L, legalMoves);
+            int king = b.kingSquare(color);
+            cachedInCheck = king >= 0 && b.isSquareAttacked(king, color == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
+            cachedBoard = b;
+            cachedVersion = b.getVersion();
+            cachedColor = color;
+            cachedStatus = null;
+        }
+        return legalMoves;
+    }
 
+    /**
+     * Gets the check, checkmate, stalemate and draw state of the side to move
+     * in one object. It is worked out once per position, right after each
+     * move, and the same instance is returned until the board changes.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus getGameStatus() {
+        MoveList moves = legalMoves();
+        if(cachedStatus == null){
+            int halfmoveClock = b.getHalfmoveClock();
+            int repetitions = history().repetitions(b.getKey(), halfmoveClock);
+            cachedStatus = new GameStatus(color, cachedInCheck, !moves.isEmpty(), halfmoveClock, repetitions,
+                    b.hasInsufficientMaterial());
+        }
+        return cachedStatus;
     }
 
     /**
@@ -38,6 +110,7 @@ public class ChessGame {
     public void setTeamTurn(TeamColor team) {
 
         color = team;
+        b.setTeamTurn(team);
     }
 
     /**
@@ -56,21 +129,25 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        TeamColor c = b.getPiece(startPosition).getTeamColor();
-        HashSet<ChessMove> moves = (HashSet<ChessMove>) b.getPiece(startPosition).pieceMoves(b, startPosition);
+        ChessPiece piece = b.getPiece(startPosition);
+        if(piece == null){
+            return null;
+        }
         HashSet<ChessMove> validMoves = new HashSet<ChessMove>();
-
-
-
-        for(ChessMove m : moves){
-            ChessBoard testB = new ChessBoard(b);
-            testB.addPiece(m.getEndPosition(), b.getPiece(startPosition));
-            testB.addPiece(startPosition, null);
-            if(!testBoardCheck(c, testB)){
-                validMoves.add(m);
+        int from = Bitboards.square(startPosition);
+        if(piece.getTeamColor() == color){
+            MoveList moves = legalMoves();
+            for(int i = 0; i < moves.size(); i++){
+                if(Move.from(moves.get(i)) == from){
+                    validMoves.add(Move.toChessMove(moves.get(i)));
+                }
             }
         }
-
+        else{
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(b, piece.getTeamColor(), 1L << from, moves);
+            moves.addTo(validMoves);
+        }
         return validMoves;
     }
 
@@ -82,6 +159,9 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
 
+        if(!move.getStartPosition().valid() || !move.getEndPosition().valid()){
+            throw new InvalidMoveException("off the board");
+        }
         if(b.getPiece(move.getStartPosition()) == null){
             throw new InvalidMoveException("null piece");
         }
@@ -89,42 +169,15 @@ public class ChessGame {
             throw new InvalidMoveException("wrong color");
         }
 
-        HashSet<ChessMove> moves = new HashSet<ChessMove>();
-        moves = (HashSet<ChessMove>) validMoves(move.getStartPosition());
-        if(!moves.contains(move)){
+        int m = Move.encode(move);
+        if(!legalMoves().contains(m)){
             throw new InvalidMoveException("invalid move for piece type");
         }
 
-        if(move.getPromotionPiece() == null){
-            b.addPiece(move.getEndPosition(), b.getPiece(move.getStartPosition()));
-            b.addPiece(move.getStartPosition(), null);
-        }
-        else{
-            switch (move.getPromotionPiece()) {
-                case KING:
-                    b.addPiece(move.getEndPosition(), new ChessPiece(b.getPiece(move.getStartPosition()).getTeamColor(), ChessPiece.PieceType.KING));
-                    b.addPiece(move.getStartPosition(), null);
-                    break;
-                case QUEEN:
-                    b.addPiece(move.getEndPosition(), new ChessPiece(b.getPiece(move.getStartPosition()).getTeamColor(), ChessPiece.PieceType.QUEEN));
-                    b.addPiece(move.getStartPosition(), null);
-                    break;
-                case ROOK:
-                    b.addPiece(move.getEndPosition(), new ChessPiece(b.getPiece(move.getStartPosition()).getTeamColor(), ChessPiece.PieceType.ROOK));
-                    b.addPiece(move.getStartPosition(), null);
-                    break;
-                case BISHOP:
-                    b.addPiece(move.getEndPosition(), new ChessPiece(b.getPiece(move.getStartPosition()).getTeamColor(), ChessPiece.PieceType.BISHOP));
-                    b.addPiece(move.getStartPosition(), null);
-                    break;
-                case KNIGHT:
-                    b.addPiece(move.getEndPosition(), new ChessPiece(b.getPiece(move.getStartPosition()).getTeamColor(), ChessPiece.PieceType.KNIGHT));
-                    b.addPiece(move.getStartPosition(), null);
-                    break;
-                default:
-                    throw new InvalidMoveException("Unexpected promotion piece");
-            }
-        }
+        MoveHistory h = history();
+        long key = b.getKey();
+        h.push(b.makeMove(m), key);
+        historyVersion = b.getVersion();
 
         if(color == TeamColor.WHITE){
             color = TeamColor.BLACK;
@@ -132,79 +185,137 @@ public class ChessGame {
         else{
             color = TeamColor.WHITE;
         }
+        getGameStatus();
 
     }
 
     /**
-     * Determines if the given team is in check
+     * Gets the positions a repetition of the current one could still count
+     * against, e.g. for an engine that should steer into or away from draws
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @return Zobrist keys of the positions played since the last capture or
+     * pawn move, oldest first, not including the current position
      */
-    public boolean isInCheck(TeamColor teamColor) {
+    public long[] getRepetitionKeys() {
+        return history().reversibleKeys(b.getHalfmoveClock());
+    }
 
-        ChessPosition kingPos = new ChessPosition(1,1);
-        ChessPosition piecePos;
-        HashSet<ChessMove> moves = new HashSet<>();
+    /**
+     * Takes back the last move played, keeping it so redo can play it again
+     *
+     * @return True if there was a move to take back
+     */
+    public boolean undo() {
+        MoveHistory h = history();
+        if(!h.canUndo()){
+            return false;
+        }
+        b.unmakeMove(h.undo());
+        historyVersion = b.getVersion();
+        color = b.getTeamTurn();
+        return true;
+    }
 
-        for(int i = 1; i < 9; i++){
-            for(int j = 1; j < 9; j++){
-                ChessPiece p = b.getPiece(NewPos(i,j));
-                if(p != null && p.getTeamColor() == teamColor && p.getPieceType() == ChessPiece.PieceType.KING){
-                    kingPos = NewPos(i,j);
-                }
-            }
+    /**
+     * Plays again the last move taken back by undo. Making any other move
+     * drops the moves that could have been redone.
+     *
+     * @return True if there was a move to redo
+     */
+    public boolean redo() {
+        MoveHistory h = history();
+        if(!h.canRedo()){
+            return false;
         }
-        for(int i = 1; i < 9; i++){
-            for(int j = 1; j < 9; j++){
-                ChessPiece p = b.getPiece(NewPos(i,j));
-                if(p!=null && p.getTeamColor() != teamColor){
-                    moves.addAll(p.pieceMoves(b,NewPos(i,j)));
-                }
-            }
+        h.redo(b.makeMove(h.redoMove()));
+        historyVersion = b.getVersion();
+        color = b.getTeamTurn();
+        return true;
+    }
+
+    /**
+     * Undoes or redoes moves in place until the game is at the given ply
+     *
+     * @param ply the ply to go to, between getFirstPly and getLastPly
+     * @throws IllegalArgumentException if ply is outside the recorded history
+     */
+    public void jumpToPly(int ply) {
+        MoveHistory h = history();
+        if(ply < h.first() || ply > h.last()){
+            throw new IllegalArgumentException("Ply " + ply + " is outside the history " + h.first() + "-" + h.last());
+        }
+        while(h.ply() > ply){
+            undo();
         }
+        while(h.ply() < ply){
+            redo();
+        }
+    }
 
-        for(ChessMove m : moves){
-            if(m.getEndPosition().equals(kingPos)){
-                return true;
-            }
+    /**
+     * @return the number of moves played since the game started, or since
+     * its board was last replaced or edited directly
+     */
+    public int getPly() {
+        return history().ply();
+    }
+
+    /**
+     * @return the earliest ply undo can still return to; older moves are
+     * dropped once the history is full
+     */
+    public int getFirstPly() {
+        return history().first();
+    }
+
+    /**
+     * @return the latest ply redo can reach
+     */
+    public int getLastPly() {
+        return history().last();
+    }
+
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+
+        if(teamColor == color){
+            legalMoves();
+            return cachedInCheck;
         }
-        return false;
+        return testBoardCheck(teamColor, b);
     }
 
 
     public ChessPosition NewPos(int r, int c){
-        return new ChessPosition(r, c);
+        return ChessPosition.of(r, c);
     }
 
     public boolean testBoardCheck(TeamColor teamColor, ChessBoard testBoard) {
 
-        ChessPosition kingPos = new ChessPosition(1, 1);
-        ChessPosition piecePos;
-        HashSet<ChessMove> moves = new HashSet<>();
-
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPiece p = testBoard.getPiece(NewPos(i, j));
-                if (p != null && p.getTeamColor() == teamColor && p.getPieceType() == ChessPiece.PieceType.KING) {
-                    kingPos = NewPos(i, j);
-                }
-            }
+        int king = testBoard.kingSquare(teamColor);
+        if(king < 0){
+            return false;
         }
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPiece p = testBoard.getPiece(NewPos(i, j));
-                if (p != null && p.getTeamColor() != teamColor) {
-                    moves.addAll(p.pieceMoves(testBoard, NewPos(i, j)));
-                }
-            }
-        }
-        for(ChessMove m : moves){
-            if(m.getEndPosition().equals(kingPos)){
-                return true;
-            }
+        return testBoard.isSquareAttacked(king, teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
+    }
+
+    /**
+     * Determines if the given team has at least one legal move, stopping as
+     * soon as one is found
+     *
+     * @param teamColor which team to look for moves for
+     * @return True if the specified team can make any legal move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        if(teamColor == color){
+            return !legalMoves().isEmpty();
         }
-        return false;
+        return MoveGenerator.generate(b, teamColor, ~0L, null);
     }
 
     /**
@@ -214,22 +325,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        HashSet<ChessMove> moves = new HashSet<ChessMove>();
-        ChessPosition kingPos = new ChessPosition(1,1);
-        ChessPiece tempPiece;
-        if(isInCheck(teamColor)){
-            for(int i = 0; i < 8; i++) {
-                for (int j = 0; j < 8; j++) {
-                    tempPiece = b.getPiece(new ChessPosition(i + 1, j + 1));
-                    if (tempPiece != null && tempPiece.getTeamColor() == teamColor) {
-                        moves.addAll(validMoves(new ChessPosition(i + 1, j + 1)));
-                    }
-                }
-            }
-            return moves.isEmpty();
-
-        }
-        return false;
+        return isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
     }
 
     /**
@@ -240,21 +336,7 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        HashSet<ChessMove> moves = new HashSet<ChessMove>();
-        ChessPiece tempPiece;
-        if(!isInCheck(teamColor)){
-            for(int i = 0; i < 8; i++) {
-                for (int j = 0; j < 8; j++) {
-                    tempPiece = b.getPiece(new ChessPosition(i + 1, j + 1));
-                    if (tempPiece != null && tempPiece.getTeamColor() == teamColor) {
-                        moves.addAll(validMoves(new ChessPosition(i + 1, j + 1)));
-                    }
-                }
-            }
-            return moves.isEmpty();
-
-        }
-        return false;
+        return !isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
     }
 
     /**
@@ -265,6 +347,7 @@ public class ChessGame {
     public void setBoard(ChessBoard board) {
 
         b = board;
+        b.setTeamTurn(color);
     }
 
     /**
@@ -276,4 +359,53 @@ public class ChessGame {
 
         return b;
     }
+
+    /**
+     * Fixes up a game Gson has just filled in. JSON from before the board kept
+     * its own turn holds it only here, so the game's turn wins.
+     */
+    void afterRead() {
+        if(b == null){
+            b = new ChessBoard();
+            b.resetBoard();
+        }
+        if(color == null){
+            color = b.getTeamTurn();
+        }
+        b.setTeamTurn(color);
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation
+     *
+     * @param fen the position to start from
+     * @return a new game at that position
+     * @throws IllegalArgumentException if fen is not valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        ChessGame game = new ChessGame();
+        game.loadFen(fen);
+        return game;
+    }
+
+    /**
+     * Replaces this game's position, including the side to move, castling
+     * rights, en passant square and move counters, reusing the current board.
+     * If fen is invalid nothing is changed: the game keeps its position, turn
+     * and history.
+     *
+     * @param fen the position to load
+     * @throws IllegalArgumentException if fen is not valid FEN
+     */
+    public void loadFen(CharSequence fen) {
+        Fen.load(b, fen);
+        color = b.getTeamTurn();
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.toFen(b);
+    }
 }
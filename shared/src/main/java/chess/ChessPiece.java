@@ -12,11 +12,31 @@ public class ChessPiece {
     ChessGame.TeamColor c;
     PieceType t;
 
+    //shared instances, indexed by Bitboards.index(color, type)
+    static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()){
+            for(PieceType type : PieceType.values()){
+                PIECES[Bitboards.index(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         c = pieceColor;
         t = type;
     }
 
+    /**
+     * Gets the shared instance for a piece instead of allocating a new one
+     *
+     * @return the piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboards.index(pieceColor, type)];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -65,157 +85,13 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         HashSet<ChessMove> m = new HashSet<>();
-        ChessPosition temp = myPosition;
-        if(t == PieceType.ROOK){
-            int[][] directions = {{1,0}, {-1,0},{0,1},{0,-1}};
-            for(int[] d : directions){
-                temp = new ChessPosition(myPosition.getRow()+d[0],myPosition.getColumn()+d[1]);
-                while(temp.valid() && board.getPiece(temp)==null) {
-                    m.add(new ChessMove(myPosition, temp, null));
-                    temp = new ChessPosition(temp.getRow()+d[0], temp.getColumn()+d[1]);
-                }
-                if(temp.valid() && board.getPiece(temp).getTeamColor()!=c){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-            }
-        }
-        else if(t == PieceType.QUEEN){
-            int[][] directions = {{1,0},{1,1},{0,1},{1,-1},{-1,0}, {-1,-1},{0,-1},{-1,1}};
-            for(int[] d : directions){
-                temp = new ChessPosition(myPosition.getRow()+d[0],myPosition.getColumn()+d[1]);
-                while(temp.valid() && board.getPiece(temp)==null) {
-                    m.add(new ChessMove(myPosition, temp, null));
-                    temp = new ChessPosition(temp.getRow()+d[0], temp.getColumn()+d[1]);
-                }
-                if(temp.valid() && board.getPiece(temp).getTeamColor()!=c){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-            }
-        }
-        else if(t == PieceType.KING){
-            int[][] directions = {{1,0},{1,1},{0,1},{1,-1},{-1,0}, {-1,-1},{0,-1},{-1,1}};
-            for(int[] d : directions){
-                temp = new ChessPosition(myPosition.getRow()+d[0],myPosition.getColumn()+d[1]);
-                if(temp.valid() && board.getPiece(temp) == null){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-                else if(temp.valid() && board.getPiece(temp).getTeamColor()!=c){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-            }
+        MoveList moves = new MoveList();
+        int from = Bitboards.square(myPosition);
+        boolean pawn = t == PieceType.PAWN;
+        for(long targets = MoveGenerator.pseudoTargets(board, this, from); targets != 0; targets &= targets - 1){
+            MoveGenerator.addMoves(moves, from, Long.numberOfTrailingZeros(targets), pawn);
         }
-        else if(t == PieceType.BISHOP){
-            int[][] directions = {{1,1}, {-1,-1},{1,-1},{-1,1}};
-            for(int[] d : directions){
-                temp = new ChessPosition(myPosition.getRow()+d[0],myPosition.getColumn()+d[1]);
-                while(temp.valid() && board.getPiece(temp)==null) {
-                    m.add(new ChessMove(myPosition, temp, null));
-                    temp = new ChessPosition(temp.getRow()+d[0], temp.getColumn()+d[1]);
-                }
-                if(temp.valid() && board.getPiece(temp).getTeamColor()!=c){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-            }
-        }
-        else if(t == PieceType.KNIGHT){
-            int[][] directions = {{2,1}, {-2,1},{2,-1},{-2,-1}, {1,2},{1,-2},{-1,2},{-1,-2}};
-            for(int[] d : directions){
-                temp = new ChessPosition(myPosition.getRow()+d[0],myPosition.getColumn()+d[1]);
-                if(temp.valid() && board.getPiece(temp) == null){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-                else if(temp.valid() && board.getPiece(temp).getTeamColor()!=c){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-            }
-        }
-        else if(t == PieceType.PAWN){
-            ArrayList<ChessMove> toAdd = new ArrayList<>();
-            ArrayList<ChessMove> toDelete = new ArrayList<>();
-            if(c == ChessGame.TeamColor.BLACK){
-                if(myPosition.getRow()==7){
-                    temp = new ChessPosition(myPosition.getRow()-2, myPosition.getColumn());
-                    if(board.getPiece(temp) == null){
-                        if(board.getPiece(new ChessPosition(myPosition.getRow()-1, myPosition.getColumn())) == null){
-                            m.add(new ChessMove(myPosition, temp, null));
-                        }
-                    }
-                }
-                temp = new ChessPosition(myPosition.getRow()-1, myPosition.getColumn());
-                if(board.getPiece(temp)==null){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-                //capture
-                int[][] blackTake = {{-1,-1},{-1,1}};
-                for(int[] t : blackTake){
-                    temp = new ChessPosition(myPosition.getRow()+t[0], myPosition.getColumn()+t[1]);
-                    if(temp.valid() && board.getPiece(temp) != null && board.getPiece(temp).getTeamColor() != ChessGame.TeamColor.BLACK){
-                        m.add(new ChessMove(myPosition, temp, null));
-                    }
-                }
-
-                //promote
-                if(myPosition.getRow()==2){
-                    for(ChessMove c : m){
-                        for(PieceType p : PieceType.values()){
-                            if(p != PieceType.KING && p != PieceType.PAWN){
-                                toAdd.add(new ChessMove(c.getStartPosition(), c.getEndPosition(), p));
-                            }
-                        }
-                        if(c.getPromotionPiece() == null){
-                            toDelete.add(c);
-                        }
-                    }
-                }
-            }
-
-            //white
-
-            if(c == ChessGame.TeamColor.WHITE){
-                if(myPosition.getRow()==2){
-                    temp = new ChessPosition(myPosition.getRow()+2, myPosition.getColumn());
-                    if(board.getPiece(temp) == null){
-                        if(board.getPiece(new ChessPosition(myPosition.getRow()+1, myPosition.getColumn())) == null){
-                            m.add(new ChessMove(myPosition, temp, null));
-                        }
-                    }
-                }
-                temp = new ChessPosition(myPosition.getRow()+1, myPosition.getColumn());
-                if(board.getPiece(temp)==null){
-                    m.add(new ChessMove(myPosition, temp, null));
-                }
-                //capture
-                int[][] blackTake = {{1,1},{1,-1}};
-                for(int[] t : blackTake){
-                    temp = new ChessPosition(myPosition.getRow()+t[0], myPosition.getColumn()+t[1]);
-                    if(temp.valid() && board.getPiece(temp) != null && board.getPiece(temp).getTeamColor() != ChessGame.TeamColor.WHITE){
-                        m.add(new ChessMove(myPosition, temp, null));
-                    }
-                }
-
-                //promote
-                if(myPosition.getRow()==7){
-                    for(ChessMove c : m){
-                        for(PieceType p : PieceType.values()){
-                            if(p != PieceType.KING && p != PieceType.PAWN){
-                                toAdd.add(new ChessMove(c.getStartPosition(), c.getEndPosition(), p));
-                            }
-                        }
-                        if(c.getPromotionPiece() == null){
-                            toDelete.add(c);
-                        }
-                    }
-                }
-            }
-
-            //add/remove
-            m.addAll(toAdd);
-            toDelete.forEach(m::remove);
-
-        }
-
-
-
+        moves.addTo(m);
         return m;
     }
     @Override
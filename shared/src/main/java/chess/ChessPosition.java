@@ -12,11 +12,34 @@ public class ChessPosition {
     int r;
     int c;
 
+    //shared instance for every square that is not on the board
+    public static final ChessPosition OFF_BOARD = new ChessPosition(0, 0);
+    //shared instances for the 64 board squares, indexed (row-1)*8 + (col-1)
+    static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for(int sq = 0; sq < 64; sq++){
+            SQUARES[sq] = new ChessPosition((sq >>> 3) + 1, (sq & 7) + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         r = row;
         c = col;
     }
 
+    /**
+     * Gets the shared instance for a square instead of allocating a new one
+     *
+     * @return the position at row, col, or OFF_BOARD if that is not on the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if(row >= 1 && row <= 8 && col >= 1 && col <= 8){
+            return SQUARES[(row - 1) * 8 + col - 1];
+        }
+        return OFF_BOARD;
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,43 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gson support for ChessBoard and ChessGame. They are written and read field
+ * by field as usual, then the state ChessBoard keeps alongside its pieces
+ * (bitboards, counts, scores and keys) is rebuilt, since it is transient.
+ * This also loads JSON written before that state existed, which holds only
+ * the pieces and the game's turn.
+ */
+final class DerivedStateAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                T value = delegate.read(in);
+                if(value instanceof ChessBoard board){
+                    board.rebuild();
+                }
+                else if(value instanceof ChessGame game){
+                    game.afterRead();
+                }
+                return value;
+            }
+        };
+    }
+}
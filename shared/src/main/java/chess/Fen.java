@@ -0,0 +1,271 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The parser walks the text once, character by character, and writes straight
+ * into an existing board using the shared position and piece instances, so
+ * loading a position allocates nothing. The castling, en passant and move
+ * counter fields may be left off and default to "- - 0 1".
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen the position to load
+     * @return a new board holding the position
+     * @throws IllegalArgumentException if fen is not valid FEN
+     */
+    public static ChessBoard toBoard(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        load(board, fen);
+        return board;
+    }
+
+    /**
+     * Replaces the contents of board with the position described by fen. The
+     * whole text is checked before anything is written, so if fen is invalid
+     * the board is left as it was.
+     *
+     * @param board the board to load into
+     * @param fen   the position to load
+     * @throws IllegalArgumentException if fen is not valid FEN
+     */
+    public static void load(ChessBoard board, CharSequence fen) {
+        int n = fen.length();
+        int i = placement(null, fen);
+
+        //side to move
+        i = skipSpaces(fen, i);
+        if(i >= n || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')){
+            throw invalid(fen, i);
+        }
+        ChessGame.TeamColor turn = fen.charAt(i) == 'w' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        i = skipSpaces(fen, i + 1);
+
+        //castling rights
+        int rights = 0;
+        if(i < n && fen.charAt(i) == '-'){
+            i++;
+        }
+        else{
+            for(; i < n && fen.charAt(i) != ' '; i++){
+                rights |= switch (fen.charAt(i)) {
+                    case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                    case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                    case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                    case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen, i);
+                };
+            }
+        }
+        i = skipSpaces(fen, i);
+
+        //en passant target square
+        int epSquare = -1;
+        if(i < n && fen.charAt(i) == '-'){
+            i++;
+        }
+        else if(i < n){
+            if(i + 1 >= n){
+                throw invalid(fen, i);
+            }
+            int file = fen.charAt(i) - 'a';
+            int rank = fen.charAt(i + 1) - '1';
+            if(file < 0 || file > 7 || (rank != 2 && rank != 5)){
+                throw invalid(fen, i);
+            }
+            epSquare = rank * 8 + file;
+            i += 2;
+        }
+        i = skipSpaces(fen, i);
+
+        //move counters
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if(i < n){
+            int start = i;
+            int value = 0;
+            for(; i < n && fen.charAt(i) != ' '; i++){
+                value = digit(fen, i, value);
+            }
+            if(value > ChessBoard.MAX_HALFMOVE_CLOCK){
+                throw invalid(fen, start);
+            }
+            halfmoveClock = value;
+            i = skipSpaces(fen, i);
+            if(i < n){
+                value = 0;
+                for(; i < n && fen.charAt(i) != ' '; i++){
+                    value = digit(fen, i, value);
+                }
+                fullmoveNumber = Math.max(value, 1);
+            }
+            if(skipSpaces(fen, i) < n){
+                throw invalid(fen, start);
+            }
+        }
+
+        //all valid, so now replace the position
+        board.clear();
+        placement(board, fen);
+        board.turn = turn;
+        board.castlingRights = rights;
+        board.epSquare = epSquare;
+        board.halfmoveClock = halfmoveClock;
+        board.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Reads the piece placement field, rank 8 first
+     *
+     * @param board the board to place the pieces on, or null to only check them
+     * @return the index just past the field
+     */
+    private static int placement(ChessBoard board, CharSequence fen) {
+        int n = fen.length();
+        int i = 0;
+        int row = 7;
+        int col = 0;
+        for(; i < n && fen.charAt(i) != ' '; i++){
+            char c = fen.charAt(i);
+            if(c == '/'){
+                if(col != 8 || row == 0){
+                    throw invalid(fen, i);
+                }
+                row--;
+                col = 0;
+            }
+            else if(c >= '1' && c <= '8'){
+                col += c - '0';
+                if(col > 8){
+                    throw invalid(fen, i);
+                }
+            }
+            else{
+                ChessPiece.PieceType type = type(c);
+                if(type == null || col > 7){
+                    throw invalid(fen, i);
+                }
+                if(board != null){
+                    ChessGame.TeamColor color = c < 'a' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                    board.setPiece(row * 8 + col, ChessPiece.of(color, type));
+                }
+                col++;
+            }
+        }
+        if(row != 0 || col != 8){
+            throw invalid(fen, i);
+        }
+        return i;
+    }
+
+    /**
+     * @param board the position to write
+     * @return the position in FEN
+     */
+    public static String toFen(ChessBoard board) {
+        StringBuilder out = new StringBuilder(90);
+        append(board, out);
+        return out.toString();
+    }
+
+    /**
+     * Writes the position in FEN to out
+     */
+    public static void append(ChessBoard board, StringBuilder out) {
+        for(int row = 7; row >= 0; row--){
+            int empty = 0;
+            for(int col = 0; col < 8; col++){
+                ChessPiece p = board.getPiece(row * 8 + col);
+                if(p == null){
+                    empty++;
+                    continue;
+                }
+                if(empty > 0){
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(symbol(p));
+            }
+            if(empty > 0){
+                out.append((char) ('0' + empty));
+            }
+            if(row > 0){
+                out.append('/');
+            }
+        }
+
+        out.append(board.turn == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if(rights == 0){
+            out.append('-');
+        }
+        if((rights & ChessBoard.WHITE_KINGSIDE) != 0) out.append('K');
+        if((rights & ChessBoard.WHITE_QUEENSIDE) != 0) out.append('Q');
+        if((rights & ChessBoard.BLACK_KINGSIDE) != 0) out.append('k');
+        if((rights & ChessBoard.BLACK_QUEENSIDE) != 0) out.append('q');
+
+        out.append(' ');
+        if(board.epSquare < 0){
+            out.append('-');
+        }
+        else{
+            out.append((char) ('a' + (board.epSquare & 7))).append((char) ('1' + (board.epSquare >>> 3)));
+        }
+
+        out.append(' ').append(board.halfmoveClock).append(' ').append(board.fullmoveNumber);
+    }
+
+    /**
+     * @return the FEN letter for a piece, upper case for white
+     */
+    public static char symbol(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    private static ChessPiece.PieceType type(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while(i < fen.length() && fen.charAt(i) == ' '){
+            i++;
+        }
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i, int value) {
+        char c = fen.charAt(i);
+        if(c < '0' || c > '9' || value > 100_000){
+            throw invalid(fen, i);
+        }
+        return value * 10 + (c - '0');
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, int i) {
+        return new IllegalArgumentException("Invalid FEN at character " + i + ": " + fen);
+    }
+}
@@ -0,0 +1,154 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Compact binary form of a ChessGame for storage and the wire.
+ * <p>
+ * Layout ({@value #SIZE} bytes): a version byte, 32 bytes of board with one
+ * nibble per square from a1 to h8 (low nibble first, 0 for empty, otherwise
+ * piece index + 1), a byte holding the side to move in bit 0 and castling
+ * rights in bits 1-4, the en passant square or 0xFF, then the halfmove clock
+ * and fullmove number as unsigned shorts.
+ */
+public final class GameCodec {
+
+    public static final int SIZE = 39;
+    private static final byte VERSION = 1;
+
+    private GameCodec() {
+    }
+
+    /**
+     * Writes game at the buffer's position and advances it by SIZE bytes
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        out.put(VERSION);
+        for(int sq = 0; sq < 64; sq += 2){
+            out.put((byte) (nibble(board.getPiece(sq)) | (nibble(board.getPiece(sq + 1)) << 4)));
+        }
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0) | (board.getCastlingRights() << 1);
+        out.put((byte) flags);
+        out.put((byte) (board.epSquare < 0 ? 0xFF : board.epSquare));
+        out.putShort((short) Math.min(board.halfmoveClock, ChessBoard.MAX_HALFMOVE_CLOCK));
+        out.putShort((short) Math.min(board.fullmoveNumber, 0xFFFF));
+    }
+
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer out = ByteBuffer.allocate(SIZE);
+        encode(game, out);
+        return out.array();
+    }
+
+    /**
+     * Reads a game written by encode from the buffer's position into an
+     * existing game, reusing its board. All SIZE bytes are checked first, so
+     * if they are not a valid encoding neither the game nor the buffer's
+     * position is changed.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public static void decode(ByteBuffer in, ChessGame game) {
+        validate(in);
+        in.get();
+        ChessBoard board = game.getBoard();
+        board.clear();
+        for(int sq = 0; sq < 64; sq += 2){
+            int b = in.get();
+            board.setPiece(sq, piece(b & 0xF));
+            board.setPiece(sq + 1, piece((b >>> 4) & 0xF));
+        }
+        int flags = in.get();
+        int ep = in.get() & 0xFF;
+        board.castlingRights = (flags >>> 1) & 0xF;
+        board.epSquare = ep == 0xFF ? -1 : ep;
+        board.halfmoveClock = in.getShort() & 0xFFFF;
+        board.fullmoveNumber = in.getShort() & 0xFFFF;
+        game.setTeamTurn((flags & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+    }
+
+    public static ChessGame decode(ByteBuffer in) {
+        ChessGame game = new ChessGame();
+        decode(in, game);
+        return game;
+    }
+
+    public static ChessGame decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return the encoding as text, for a string column or JSON field
+     */
+    public static String toBase64(ChessGame game) {
+        return Base64.getEncoder().encodeToString(encode(game));
+    }
+
+    public static ChessGame fromBase64(String text) {
+        return decode(Base64.getDecoder().decode(text));
+    }
+
+    /**
+     * Gson adapter that stores a ChessGame as its Base64 encoding instead of
+     * the nested board arrays, e.g.
+     * {@code new GsonBuilder().registerTypeAdapter(ChessGame.class, GameCodec.gsonAdapter())}
+     */
+    public static TypeAdapter<ChessGame> gsonAdapter() {
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                if(game == null){
+                    out.nullValue();
+                }
+                else{
+                    out.value(toBase64(game));
+                }
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                if(in.peek() == JsonToken.NULL){
+                    in.nextNull();
+                    return null;
+                }
+                return fromBase64(in.nextString());
+            }
+        };
+    }
+
+    /**
+     * Checks the encoding at the buffer's position without moving it
+     */
+    private static void validate(ByteBuffer in) {
+        int start = in.position();
+        if(in.remaining() < SIZE || in.get(start) != VERSION){
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        for(int i = 1; i <= 32; i++){
+            int b = in.get(start + i);
+            if((b & 0xF) > 12 || ((b >>> 4) & 0xF) > 12){
+                throw new IllegalArgumentException("Bad piece code in byte " + i);
+            }
+        }
+        int ep = in.get(start + 34) & 0xFF;
+        if(ep != 0xFF && ep > 63){
+            throw new IllegalArgumentException("Bad en passant square " + ep);
+        }
+    }
+
+    private static int nibble(ChessPiece piece) {
+        return piece == null ? 0 : Bitboards.index(piece) + 1;
+    }
+
+    private static ChessPiece piece(int nibble) {
+        return nibble == 0 ? null : ChessPiece.PIECES[nibble - 1];
+    }
+}
@@ -0,0 +1,123 @@
+package chess;
+
+/**
+ * Snapshot of the game-over and notification state of a position, from the
+ * point of view of the side to move. ChessGame builds one per position and
+ * hands out the same instance until the board changes.
+ */
+public class GameStatus {
+    private final ChessGame.TeamColor teamTurn;
+    private final boolean inCheck;
+    private final boolean checkmate;
+    private final boolean stalemate;
+    private final int halfmoveClock;
+    private final int repetitions;
+    private final boolean insufficientMaterial;
+
+    GameStatus(ChessGame.TeamColor teamTurn, boolean inCheck, boolean hasLegalMove, int halfmoveClock, int repetitions,
+               boolean insufficientMaterial) {
+        this.teamTurn = teamTurn;
+        this.inCheck = inCheck;
+        this.checkmate = inCheck && !hasLegalMove;
+        this.stalemate = !inCheck && !hasLegalMove;
+        this.halfmoveClock = halfmoveClock;
+        this.repetitions = repetitions;
+        this.insufficientMaterial = insufficientMaterial;
+    }
+
+    /**
+     * @return the team whose turn it is, which the other fields describe
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    public boolean isInCheck() {
+        return inCheck;
+    }
+
+    public boolean isCheckmate() {
+        return checkmate;
+    }
+
+    public boolean isStalemate() {
+        return stalemate;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return how many times this position has occurred with the same side to
+     * move, castling rights and en passant capture, counting this one
+     */
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    /**
+     * @return True if the position has occurred three times, so either player
+     * may claim a draw
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions >= 3;
+    }
+
+    /**
+     * @return True if the position has occurred five times, which draws the
+     * game without a claim
+     */
+    public boolean isFivefoldRepetition() {
+        return repetitions >= 5;
+    }
+
+    /**
+     * @return True if fifty moves by each side have passed without a capture
+     * or pawn move, so either player may claim a draw
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    /**
+     * @return True if seventy-five moves by each side have passed without a
+     * capture or pawn move, which draws the game unless the last move mated
+     */
+    public boolean isSeventyFiveMoveRule() {
+        return halfmoveClock >= 150 && !checkmate;
+    }
+
+    /**
+     * @return True if neither side has the pieces left to checkmate, which
+     * draws the game
+     */
+    public boolean isInsufficientMaterial() {
+        return insufficientMaterial;
+    }
+
+    /**
+     * @return True if either player may claim a draw
+     */
+    public boolean isDrawClaimable() {
+        return isThreefoldRepetition() || isFiftyMoveRule();
+    }
+
+    /**
+     * @return True if the game has ended, including draws that need no claim
+     */
+    public boolean isGameOver() {
+        return checkmate || stalemate || insufficientMaterial || isFivefoldRepetition() || isSeventyFiveMoveRule();
+    }
+
+    @Override
+    public String toString() {
+        return "GameStatus{" + teamTurn + (inCheck ? " in check" : "") + (checkmate ? " checkmate" : "")
+                + (stalemate ? " stalemate" : "") + " halfmove " + halfmoveClock
+                + (repetitions > 1 ? " repeated " + repetitions : "")
+                + (insufficientMaterial ? " insufficient material" : "") + "}";
+    }
+}
@@ -0,0 +1,89 @@
+package chess;
+
+/**
+ * Packs a move into an int so move generation and search can work without
+ * allocating ChessMove objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (a1 = 0, h8 = 63)
+ * and bits 12-14 the promotion piece as PieceType ordinal + 1, or 0 for none.
+ * A valid move is never 0 because its start and end squares differ.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << TO_SHIFT);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion) {
+        return promotion == null ? of(from, to) : of(from, to) | ((promotion.ordinal() + 1) << PROMOTION_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int p = (move >>> PROMOTION_SHIFT) & 0x7;
+        return p == 0 ? null : TYPES[p - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & 0x7) != 0;
+    }
+
+    /**
+     * @param move the move to pack
+     * @return the packed form of move
+     * @throws IllegalArgumentException if either square is off the board,
+     *                                  which would pack as some other move
+     */
+    public static int encode(ChessMove move) {
+        if(!move.getStartPosition().valid() || !move.getEndPosition().valid()){
+            throw new IllegalArgumentException("Move leaves the board: " + move);
+        }
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()), move.getPromotionPiece());
+    }
+
+    /**
+     * @param move a packed move
+     * @return the equivalent ChessMove
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. e2e4 or a7a8q
+     */
+    public static String toString(int move) {
+        String r = "" + (char) ('a' + (from(move) & 7)) + ((from(move) >>> 3) + 1)
+                + (char) ('a' + (to(move) & 7)) + ((to(move) >>> 3) + 1);
+        ChessPiece.PieceType p = promotion(move);
+        if(p != null){
+            r = r + switch (p) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "?";
+            };
+        }
+        return r;
+    }
+}
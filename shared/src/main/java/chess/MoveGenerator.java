@@ -0,0 +1,278 @@
+package chess;
+
+/**
+ * Generates strictly legal moves in a single pass.
+ * <p>
+ * Checkers and pinned pieces are worked out once from the king square, so
+ * every emitted move is already known not to leave the king in check and no
+ * trial boards are needed.
+ */
+public final class MoveGenerator {
+
+    private static final long PROMOTION_RANKS = Bitboards.RANK_1 | Bitboards.RANK_8;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Finds the legal moves for the given team's pieces that stand on fromMask
+     *
+     * @param board    the position to generate from
+     * @param us       the team to move
+     * @param fromMask bitboard of the squares whose pieces should be considered
+     * @param out      list to add packed moves to, or null to stop at the first
+     *                 legal move found
+     * @return True if at least one legal move was found
+     */
+    public static boolean generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, MoveList out) {
+        return generate(board, us, fromMask, ~0L, out);
+    }
+
+    /**
+     * Finds the legal moves for the given team's pieces on fromMask that land
+     * on toMask. Pawn moves to the last rank and en passant captures are kept
+     * whatever toMask is, and castling only when toMask is every square.
+     */
+    private static boolean generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, long toMask, MoveList out) {
+        ChessGame.TeamColor them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = board.getTeamPieces(us);
+        long occupied = board.getOccupied();
+        int king = board.kingSquare(us);
+        boolean found = false;
+
+        long checkMask = ~0L;
+        long pinned = 0L;
+        if(king >= 0){
+            long checkers = board.attackersOf(king, them, occupied);
+            if(Long.bitCount(checkers) > 1){
+                checkMask = 0L;
+            }
+            else if(checkers != 0){
+                checkMask = checkers | Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+            }
+            pinned = pinned(board, us, them, king);
+
+            if((fromMask & (1L << king)) != 0){
+                //the king may not step onto an attacked square, including ones its own body was shielding
+                long targets = Bitboards.KING_ATTACKS[king] & ~own & toMask;
+                long withoutKing = occupied & ~(1L << king);
+                for(; targets != 0; targets &= targets - 1){
+                    int to = Long.numberOfTrailingZeros(targets);
+                    if(board.attackersOf(to, them, withoutKing) == 0){
+                        if(out == null){
+                            return true;
+                        }
+                        found = true;
+                        addMoves(out, king, to, false);
+                    }
+                }
+                if(checkers == 0 && toMask == ~0L && castling(board, us, them, king, out)){
+                    if(out == null){
+                        return true;
+                    }
+                    found = true;
+                }
+            }
+        }
+
+        long pieces = own & fromMask;
+        if(king >= 0){
+            pieces &= ~(1L << king);
+        }
+        if(checkMask == 0L){
+            return found;
+        }
+        if(board.epSquare >= 0 && enPassant(board, us, them, king, fromMask, out)){
+            if(out == null){
+                return true;
+            }
+            found = true;
+        }
+        for(; pieces != 0; pieces &= pieces - 1){
+            int from = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(from);
+            boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+            long targets = pseudoTargets(board, piece, from) & checkMask & (pawn ? toMask | PROMOTION_RANKS : toMask);
+            if((pinned & (1L << from)) != 0){
+                targets &= Bitboards.LINE[king][from];
+            }
+            if(targets == 0){
+                continue;
+            }
+            if(out == null){
+                return true;
+            }
+            found = true;
+            for(; targets != 0; targets &= targets - 1){
+                addMoves(out, from, Long.numberOfTrailingZeros(targets), pawn);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds the castling moves still allowed: the right is held, the squares
+     * between king and rook are empty, and the king is not in check and does
+     * not pass through or land on an attacked square. The caller has already
+     * checked the king is not in check.
+     *
+     * @return True if at least one castling move was found
+     */
+    private static boolean castling(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king, MoveList out) {
+        int rights = board.getCastlingRights();
+        if(us == ChessGame.TeamColor.BLACK){
+            rights >>>= 2;
+        }
+        long occupied = board.getOccupied();
+        boolean found = false;
+        //the rights only survive while the king is home, so the rooks are king+3 and king-4
+        if((rights & ChessBoard.WHITE_KINGSIDE) != 0 && (Bitboards.BETWEEN[king][king + 3] & occupied) == 0
+                && board.attackersOf(king + 1, them, occupied) == 0 && board.attackersOf(king + 2, them, occupied) == 0){
+            if(out == null){
+                return true;
+            }
+            found = true;
+            out.add(Move.of(king, king + 2));
+        }
+        if((rights & ChessBoard.WHITE_QUEENSIDE) != 0 && (Bitboards.BETWEEN[king][king - 4] & occupied) == 0
+                && board.attackersOf(king - 1, them, occupied) == 0 && board.attackersOf(king - 2, them, occupied) == 0){
+            if(out == null){
+                return true;
+            }
+            found = true;
+            out.add(Move.of(king, king - 2));
+        }
+        return found;
+    }
+
+    /**
+     * Adds en passant captures onto the board's en passant square. These
+     * clear two squares on the capturing pawn's rank at once, so the pin and
+     * check masks do not cover them; instead each one is tested by looking
+     * for attacks on the king with the occupancy after the capture.
+     *
+     * @return True if at least one en passant capture was found
+     */
+    private static boolean enPassant(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king, long fromMask, MoveList out) {
+        int ep = board.epSquare;
+        //the pawn that just double pushed sits one rank past the en passant square
+        long captured = 1L << (ep ^ 8);
+        if((board.getPieces(them, ChessPiece.PieceType.PAWN) & captured) == 0){
+            return false;
+        }
+        long pawns = Bitboards.PAWN_ATTACKS[them.ordinal()][ep] & board.getPieces(us, ChessPiece.PieceType.PAWN) & fromMask;
+        boolean found = false;
+        for(; pawns != 0; pawns &= pawns - 1){
+            int from = Long.numberOfTrailingZeros(pawns);
+            if(king >= 0){
+                long after = (board.getOccupied() ^ (1L << from) ^ captured) | (1L << ep);
+                if((board.attackersOf(king, them, after) & ~captured) != 0){
+                    continue;
+                }
+            }
+            if(out == null){
+                return true;
+            }
+            found = true;
+            out.add(Move.of(from, ep));
+        }
+        return found;
+    }
+
+    /**
+     * @return bitboard of our pieces that are the only thing standing between
+     * our king and an enemy slider
+     */
+    private static long pinned(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king) {
+        long theirs = board.getTeamPieces(them);
+        long queens = board.getPieces(them, ChessPiece.PieceType.QUEEN);
+        long snipers = Bitboards.rookAttacks(king, theirs) & (board.getPieces(them, ChessPiece.PieceType.ROOK) | queens);
+        snipers |= Bitboards.bishopAttacks(king, theirs) & (board.getPieces(them, ChessPiece.PieceType.BISHOP) | queens);
+        long pinned = 0L;
+        long occupied = board.getOccupied();
+        for(; snipers != 0; snipers &= snipers - 1){
+            long blockers = Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if(Long.bitCount(blockers) == 1){
+                pinned |= blockers & board.getTeamPieces(us);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Squares a piece standing on from could move to, ignoring whether the
+     * move would leave its own king in check
+     */
+    static long pseudoTargets(ChessBoard board, ChessPiece piece, int from) {
+        ChessGame.TeamColor c = piece.getTeamColor();
+        long own = board.getTeamPieces(c);
+        long occupied = board.getOccupied();
+        return switch (piece.getPieceType()) {
+            case KING -> Bitboards.KING_ATTACKS[from] & ~own;
+            case QUEEN -> Bitboards.queenAttacks(from, occupied) & ~own;
+            case BISHOP -> Bitboards.bishopAttacks(from, occupied) & ~own;
+            case KNIGHT -> Bitboards.KNIGHT_ATTACKS[from] & ~own;
+            case ROOK -> Bitboards.rookAttacks(from, occupied) & ~own;
+            case PAWN -> pawnTargets(board, c, from);
+        };
+    }
+
+    /**
+     * Pushes (single and double) plus diagonal captures for a pawn of the
+     * given color standing on square from
+     */
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor c, int from) {
+        long empty = ~board.getOccupied();
+        long enemy = board.getTeamPieces(c == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        long pawn = 1L << from;
+        long targets = Bitboards.PAWN_ATTACKS[c.ordinal()][from] & enemy;
+        if(c == ChessGame.TeamColor.WHITE){
+            long single = (pawn << 8) & empty;
+            targets |= single | ((single & (Bitboards.RANK_2 << 8)) << 8) & empty;
+        }
+        else{
+            long single = (pawn >>> 8) & empty;
+            targets |= single | ((single & (Bitboards.RANK_7 >>> 8)) >>> 8) & empty;
+        }
+        return targets;
+    }
+
+    /**
+     * Finds every legal move for the team whose turn it is on the board
+     *
+     * @param board the position to generate from
+     * @param out   list to add packed moves to
+     */
+    public static void generate(ChessBoard board, MoveList out) {
+        generate(board, board.getTeamTurn(), ~0L, out);
+    }
+
+    /**
+     * Finds the legal captures, en passant captures and promotions for the
+     * team whose turn it is, as needed by a quiescence search
+     *
+     * @param board the position to generate from
+     * @param out   list to add packed moves to
+     */
+    public static void generateCaptures(ChessBoard board, MoveList out) {
+        ChessGame.TeamColor us = board.getTeamTurn();
+        ChessGame.TeamColor them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        generate(board, us, ~0L, board.getTeamPieces(them), out);
+    }
+
+    /**
+     * Adds the move from -> to, expanded into the four promotions when a pawn
+     * reaches the last rank
+     */
+    static void addMoves(MoveList out, int from, int to, boolean pawn) {
+        if(pawn && (PROMOTION_RANKS & (1L << to)) != 0){
+            out.add(Move.of(from, to, ChessPiece.PieceType.QUEEN));
+            out.add(Move.of(from, to, ChessPiece.PieceType.BISHOP));
+            out.add(Move.of(from, to, ChessPiece.PieceType.KNIGHT));
+            out.add(Move.of(from, to, ChessPiece.PieceType.ROOK));
+        }
+        else{
+            out.add(Move.of(from, to));
+        }
+    }
+}
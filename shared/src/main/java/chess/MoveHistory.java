@@ -0,0 +1,136 @@
+package chess;
+
+/**
+ * A bounded record of the moves played in a game, kept as ChessBoard undo
+ * records in a ring buffer that is allocated once. The move itself is part of
+ * each undo record, so the same slot serves both to take a move back and to
+ * play it again.
+ * <p>
+ * Alongside each record it keeps the Zobrist key of the position the move
+ * was played from, so repetitions are found by scanning keys back to the last
+ * capture or pawn move rather than by comparing boards.
+ * <p>
+ * Plies are counted from the position the history was started at. Once more
+ * than capacity plies have been played the oldest ones can no longer be
+ * undone.
+ */
+final class MoveHistory {
+
+    private final long[] records;
+    //keys[p % capacity] is the key of the position at ply p
+    private final long[] keys;
+    //oldest ply that can still be returned to, the current ply, and the last ply that can be redone
+    private int first;
+    private int ply;
+    private int last;
+
+    MoveHistory(int capacity) {
+        records = new long[capacity];
+        keys = new long[capacity];
+    }
+
+    /**
+     * Forgets every recorded move and starts counting from ply 0
+     */
+    void clear() {
+        first = 0;
+        ply = 0;
+        last = 0;
+    }
+
+    /**
+     * Records a move just made at the current ply, dropping any moves that
+     * could have been redone from here
+     *
+     * @param undo the record returned by makeMove
+     * @param key  the key of the position before the move
+     */
+    void push(long undo, long key) {
+        keys[ply % keys.length] = key;
+        records[ply % records.length] = undo;
+        ply++;
+        last = ply;
+        if(ply - first > records.length){
+            first = ply - records.length;
+        }
+    }
+
+    /**
+     * @return the undo record of the move that led to the current ply, which
+     * becomes the move to redo
+     */
+    long undo() {
+        ply--;
+        return records[ply % records.length];
+    }
+
+    /**
+     * @return the packed move played from the current ply before it was undone
+     */
+    int redoMove() {
+        return ChessBoard.move(records[ply % records.length]);
+    }
+
+    /**
+     * Stores the fresh undo record for a redone move and steps forward
+     */
+    void redo(long undo) {
+        records[ply % records.length] = undo;
+        ply++;
+    }
+
+    /**
+     * Counts how often the current position has occurred, looking back only as
+     * far as the last irreversible move
+     *
+     * @param key           the key of the current position
+     * @param halfmoveClock plies since the last capture or pawn move
+     * @return 1 for a position seen for the first time, 2 for its first repeat
+     * and so on
+     */
+    int repetitions(long key, int halfmoveClock) {
+        int count = 1;
+        int stop = Math.max(first, ply - halfmoveClock);
+        //the same side has to be on move, and no position recurs within two moves
+        for(int p = ply - 4; p >= stop; p -= 2){
+            if(keys[p % keys.length] == key){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param halfmoveClock plies since the last capture or pawn move
+     * @return the keys of the positions since the last irreversible move, up
+     * to but not including the current one, oldest first
+     */
+    long[] reversibleKeys(int halfmoveClock) {
+        int start = Math.max(first, ply - halfmoveClock);
+        long[] out = new long[ply - start];
+        for(int p = start; p < ply; p++){
+            out[p - start] = keys[p % keys.length];
+        }
+        return out;
+    }
+
+    boolean canUndo() {
+        return ply > first;
+    }
+
+    boolean canRedo() {
+        return ply < last;
+    }
+
+    int first() {
+        return first;
+    }
+
+    int ply() {
+        return ply;
+    }
+
+    int last() {
+        return last;
+    }
+}
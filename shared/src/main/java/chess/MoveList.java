@@ -0,0 +1,71 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable list of packed moves (see Move) backed by an int array, meant
+ * to be allocated once and cleared between uses.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        //no legal chess position has more than 218 moves
+        moves = new int[256];
+    }
+
+    public void add(int move) {
+        if(size == moves.length){
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for(int i = 0; i < size; i++){
+            if(moves[i] == move){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts every move to a ChessMove and adds it to out
+     */
+    public void addTo(Collection<ChessMove> out) {
+        for(int i = 0; i < size; i++){
+            out.add(Move.toChessMove(moves[i]));
+        }
+    }
+
+    public Collection<ChessMove> toChessMoves() {
+        ArrayList<ChessMove> r = new ArrayList<>(size);
+        addTo(r);
+        return r;
+    }
+}
@@ -0,0 +1,231 @@
+package chess;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Perft (performance test) driver: counts the leaf nodes of the legal move
+ * tree to a fixed depth. The counts for the standard positions below are
+ * known, so any mismatch points at a move generation bug, and the time taken
+ * gives a nodes-per-second figure to catch performance regressions.
+ * <p>
+ * Usage: {@code Perft [depth] [position] [--divide] [--bulk] [--reference]}
+ * where position is one of the names in {@link #POSITIONS} (default start)
+ * or a quoted FEN string.
+ */
+public final class Perft {
+
+    /**
+     * A named test position with its known node counts, starting at depth 1
+     */
+    public record Position(String name, String fen, long[] counts) {
+    }
+
+    public static final Position[] POSITIONS = {
+            new Position("start", Fen.START,
+                    new long[]{20, 400, 8902, 197281, 4865609}),
+            new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603}),
+            new Position("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2812, 43238, 674624}),
+            new Position("mirrored", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333}),
+            new Position("tactical", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1486, 62379, 2103487}),
+            new Position("promotion", "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+                    new long[]{24, 496, 9483, 182838}),
+    };
+
+    private final MoveList[] lists;
+
+    private Perft(int depth) {
+        lists = new MoveList[Math.max(depth, 1)];
+        for(int i = 0; i < lists.length; i++){
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts leaf nodes by making and unmaking every move down to depth 0
+     */
+    public static long perft(ChessBoard board, int depth) {
+        return new Perft(depth).count(board, depth, false);
+    }
+
+    /**
+     * Counts leaf nodes, but at depth 1 counts the generated moves instead of
+     * making each one
+     */
+    public static long perftBulk(ChessBoard board, int depth) {
+        return new Perft(depth).count(board, depth, true);
+    }
+
+    private long count(ChessBoard board, int depth, boolean bulk) {
+        if(depth == 0){
+            return 1;
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        MoveGenerator.generate(board, moves);
+        if(bulk && depth == 1){
+            return moves.size();
+        }
+        long nodes = 0;
+        for(int i = 0; i < moves.size(); i++){
+            long undo = board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1, bulk);
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes using only pseudo-legal pieceMoves plus a check test
+     * after each move, as ChessGame did before the legal move generator, with
+     * castling and en passant worked out square by square. This is slow but
+     * independent, so it can validate faster generators.
+     */
+    public static long perftReference(ChessBoard board, int depth) {
+        if(depth == 0){
+            return 1;
+        }
+        ChessGame.TeamColor us = board.getTeamTurn();
+        ChessGame.TeamColor them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long nodes = 0;
+        for(long pieces = board.getTeamPieces(us); pieces != 0; pieces &= pieces - 1){
+            int sq = Long.numberOfTrailingZeros(pieces);
+            for(ChessMove m : board.getPiece(sq).pieceMoves(board, Bitboards.position(sq))){
+                long undo = board.makeMove(m);
+                int king = board.kingSquare(us);
+                if(king < 0 || !board.isSquareAttacked(king, them)){
+                    nodes += perftReference(board, depth - 1);
+                }
+                board.unmakeMove(undo);
+            }
+        }
+        for(ChessMove m : specialMoves(board, us, them)){
+            long undo = board.makeMove(m);
+            if(!board.isSquareAttacked(board.kingSquare(us), them)){
+                nodes += perftReference(board, depth - 1);
+            }
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * Castling and en passant moves for perftReference, found by looking at
+     * the individual squares involved. En passant moves still need the check
+     * test after they are made.
+     */
+    private static List<ChessMove> specialMoves(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them) {
+        List<ChessMove> moves = new ArrayList<>();
+        int row = us == ChessGame.TeamColor.WHITE ? 1 : 8;
+        ChessPosition kingHome = ChessPosition.of(row, 5);
+        int rights = board.getCastlingRights() >>> (us == ChessGame.TeamColor.WHITE ? 0 : 2);
+        if(rights != 0 && !board.isSquareAttacked(kingHome, them)){
+            if((rights & ChessBoard.WHITE_KINGSIDE) != 0 && castlePathClear(board, row, 6, 7, them)){
+                moves.add(new ChessMove(kingHome, ChessPosition.of(row, 7), null));
+            }
+            if((rights & ChessBoard.WHITE_QUEENSIDE) != 0 && board.getPiece(ChessPosition.of(row, 2)) == null
+                    && castlePathClear(board, row, 4, 3, them)){
+                moves.add(new ChessMove(kingHome, ChessPosition.of(row, 3), null));
+            }
+        }
+
+        ChessPosition target = board.getEnPassantSquare();
+        if(target != null){
+            int pawnRow = target.getRow() + (us == ChessGame.TeamColor.WHITE ? -1 : 1);
+            for(int col = target.getColumn() - 1; col <= target.getColumn() + 1; col += 2){
+                if(col < 1 || col > 8){
+                    continue;
+                }
+                ChessPosition from = ChessPosition.of(pawnRow, col);
+                if(ChessPiece.of(us, ChessPiece.PieceType.PAWN).equals(board.getPiece(from))
+                        && ChessPiece.of(them, ChessPiece.PieceType.PAWN).equals(board.getPiece(ChessPosition.of(pawnRow, target.getColumn())))){
+                    moves.add(new ChessMove(from, target, null));
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static boolean castlePathClear(ChessBoard board, int row, int col1, int col2, ChessGame.TeamColor them) {
+        for(int col : new int[]{col1, col2}){
+            ChessPosition p = ChessPosition.of(row, col);
+            if(board.getPiece(p) != null || board.isSquareAttacked(p, them)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints the node count below each root move, which narrows a wrong total
+     * down to the move whose subtree disagrees
+     *
+     * @return the total node count
+     */
+    public static long divide(ChessBoard board, int depth, PrintStream out) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, moves);
+        long total = 0;
+        for(int i = 0; i < moves.size(); i++){
+            long undo = board.makeMove(moves.get(i));
+            long nodes = depth <= 1 ? 1 : perftBulk(board, depth - 1);
+            board.unmakeMove(undo);
+            out.println(Move.toString(moves.get(i)) + ": " + nodes);
+            total += nodes;
+        }
+        out.println();
+        out.println("Moves: " + moves.size());
+        out.println("Nodes: " + total);
+        return total;
+    }
+
+    public static void main(String[] args) {
+        int depth = 5;
+        Position position = POSITIONS[0];
+        boolean divide = false;
+        boolean bulk = false;
+        boolean reference = false;
+        for(String arg : args){
+            switch (arg) {
+                case "--divide" -> divide = true;
+                case "--bulk" -> bulk = true;
+                case "--reference" -> reference = true;
+                default -> {
+                    if(arg.indexOf('/') >= 0){
+                        position = new Position("custom", arg, new long[0]);
+                    }
+                    else if(Character.isDigit(arg.charAt(0))){
+                        depth = Integer.parseInt(arg);
+                    }
+                    else{
+                        for(Position p : POSITIONS){
+                            if(p.name().equals(arg)){
+                                position = p;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        ChessBoard board = Fen.toBoard(position.fen());
+        System.out.println("Position " + position.name() + ": " + position.fen());
+        if(divide){
+            divide(board, depth, System.out);
+            return;
+        }
+        for(int d = 1; d <= depth; d++){
+            long start = System.nanoTime();
+            long nodes = reference ? perftReference(board, d) : bulk ? perftBulk(board, d) : perft(board, d);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+            String expected = d <= position.counts().length ? " (expected " + position.counts()[d - 1] + ")" : "";
+            System.out.printf("depth %d: %d nodes%s in %d ms, %d nps%n", d, nodes, expected,
+                    elapsed / 1_000_000, nodes * 1_000_000_000L / elapsed);
+        }
+    }
+}
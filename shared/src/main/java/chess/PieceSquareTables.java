@@ -0,0 +1,127 @@
+package chess;
+
+/**
+ * Material plus piece-square values for the middlegame and the endgame, which
+ * ChessBoard adds up as pieces are placed and removed.
+ * <p>
+ * The tables below are written from white's side with rank 8 on top, so they
+ * read like a diagram. They are expanded at class load into one table per
+ * piece index and square, holding white values as positive numbers and black
+ * values (mirrored top to bottom) as negative ones, so the board's running
+ * totals are always from white's point of view.
+ */
+final class PieceSquareTables {
+
+    //phase weight of each piece, indexed by PieceType ordinal; the start position adds up to MAX_GAME_PHASE
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    //piece values, indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    private static final int[] MG_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] EG_VALUES = {0, 950, 340, 300, 520, 120};
+
+    private static final int[] KING_MG = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20,
+    };
+    private static final int[] KING_EG = {
+            -50,-40,-30,-20,-20,-30,-40,-50,
+            -30,-20,-10,  0,  0,-10,-20,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-30,  0,  0,  0,  0,-30,-30,
+            -50,-30,-30,-30,-30,-30,-30,-50,
+    };
+    private static final int[] QUEEN = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20,
+    };
+    private static final int[] BISHOP = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20,
+    };
+    private static final int[] KNIGHT = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50,
+    };
+    private static final int[] ROOK = {
+              0,  0,  0,  0,  0,  0,  0,  0,
+              5, 10, 10, 10, 10, 10, 10,  5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+              0,  0,  0,  5,  5,  0,  0,  0,
+    };
+    private static final int[] PAWN_MG = {
+              0,  0,  0,  0,  0,  0,  0,  0,
+             50, 50, 50, 50, 50, 50, 50, 50,
+             10, 10, 20, 30, 30, 20, 10, 10,
+              5,  5, 10, 25, 25, 10,  5,  5,
+              0,  0,  0, 20, 20,  0,  0,  0,
+              5, -5,-10,  0,  0,-10, -5,  5,
+              5, 10, 10,-20,-20, 10, 10,  5,
+              0,  0,  0,  0,  0,  0,  0,  0,
+    };
+    //in the endgame a pawn is worth more the closer it is to promoting
+    private static final int[] PAWN_EG = {
+              0,  0,  0,  0,  0,  0,  0,  0,
+             80, 80, 80, 80, 80, 80, 80, 80,
+             50, 50, 50, 50, 50, 50, 50, 50,
+             30, 30, 30, 30, 30, 30, 30, 30,
+             15, 15, 15, 15, 15, 15, 15, 15,
+              5,  5,  5,  5,  5,  5,  5,  5,
+              0,  0,  0,  0,  0,  0,  0,  0,
+              0,  0,  0,  0,  0,  0,  0,  0,
+    };
+
+    //indexed by Bitboards.index(piece) and square
+    static final int[][] MG = new int[12][64];
+    static final int[][] EG = new int[12][64];
+    static final int[] PHASE = new int[12];
+
+    static {
+        int[][] mg = {KING_MG, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MG};
+        int[][] eg = {KING_EG, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_EG};
+        for(int type = 0; type < 6; type++){
+            PHASE[type] = PHASE_WEIGHTS[type];
+            PHASE[6 + type] = PHASE_WEIGHTS[type];
+            for(int sq = 0; sq < 64; sq++){
+                //row 0 of a diagram is rank 8, so white reads it flipped and black as is
+                int white = (7 - (sq >>> 3)) * 8 + (sq & 7);
+                MG[type][sq] = MG_VALUES[type] + mg[type][white];
+                EG[type][sq] = EG_VALUES[type] + eg[type][white];
+                MG[6 + type][sq] = -(MG_VALUES[type] + mg[type][sq]);
+                EG[6 + type][sq] = -(EG_VALUES[type] + eg[type][sq]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+}
@@ -0,0 +1,53 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * (piece, square) pair plus keys for black to move, the castling rights and
+ * the en passant file, so it can be updated incrementally as pieces come and go.
+ * <p>
+ * Keys come from a fixed seed so hashes are stable between runs.
+ */
+final class Zobrist {
+
+    //indexed by Bitboards.index(color, type), then square
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    //indexed by the 4-bit castling rights mask
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for(long[] keys : PIECE_SQUARE){
+            for(int sq = 0; sq < 64; sq++){
+                seed = next(seed);
+                keys[sq] = mix(seed);
+            }
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+        //no rights hashes to 0 so positions without castling keep their old key
+        for(int rights = 1; rights < 16; rights++){
+            seed = next(seed);
+            CASTLING[rights] = mix(seed);
+        }
+        for(int file = 0; file < 8; file++){
+            seed = next(seed);
+            EN_PASSANT_FILE[file] = mix(seed);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    private static long next(long seed){
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    //splitmix64 finalizer
+    private static long mix(long z){
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
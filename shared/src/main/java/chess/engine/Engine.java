@@ -0,0 +1,154 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds good moves for bots and hints. Each search runs on a private copy of
+ * the game's board, so the game itself is never touched and may keep being
+ * read while a search is running. The positions the game has already been
+ * through since its last capture or pawn move go along with the copy, so a
+ * line that repeats one of them is scored as a draw.
+ * <p>
+ * Every search on an engine shares its transposition table, and searches may
+ * run on several threads at once.
+ * <p>
+ * With more than one thread a search is parallel (Lazy SMP): the calling
+ * thread runs the main search while helper threads search the same position
+ * and share what they find through the table, so the main search reaches
+ * greater depths in the same time. With one thread, the default, searches
+ * run only on the calling thread and a search bounded by depth or nodes
+ * always gives the same result.
+ */
+public class Engine {
+
+    public static final int DEFAULT_HASH_MEGABYTES = 16;
+    public static final int MAX_THREADS = 256;
+
+    private final TranspositionTable table;
+    private final int threads;
+    //runs helper searches; idle threads are dropped after a while
+    private final ExecutorService helpers;
+
+    public Engine() {
+        this(DEFAULT_HASH_MEGABYTES, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table
+     * @throws IllegalArgumentException if the size is out of range, see
+     *                                  TranspositionTable
+     */
+    public Engine(int hashMegabytes) {
+        this(hashMegabytes, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table
+     * @param threads       threads per search, counting the calling thread
+     * @throws IllegalArgumentException if either is out of range
+     */
+    public Engine(int hashMegabytes, int threads) {
+        if(threads < 1 || threads > MAX_THREADS){
+            throw new IllegalArgumentException("Thread count must be 1-" + MAX_THREADS + ", not " + threads);
+        }
+        table = new TranspositionTable(hashMegabytes);
+        this.threads = threads;
+        helpers = threads == 1 ? null : Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the game's current position for the side to move
+     *
+     * @param game   the game to search
+     * @param limits when to stop searching
+     * @return the best move found with its score and principal variation
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        SearchControl control = new SearchControl(limits);
+        ChessBoard board = game.getBoard();
+        long[] gameKeys = game.getRepetitionKeys();
+        Searcher main = Searcher.forThread(new ChessBoard(board), gameKeys, control, table, 0);
+        //copy the board for every helper before any starts, while the caller still holds the game
+        ChessBoard[] helperBoards = new ChessBoard[threads - 1];
+        for(int i = 0; i < helperBoards.length; i++){
+            helperBoards[i] = new ChessBoard(board);
+        }
+        List<Future<SearchResult>> running = new ArrayList<>(helperBoards.length);
+        for(int i = 0; i < helperBoards.length; i++){
+            ChessBoard helperBoard = helperBoards[i];
+            int id = i + 1;
+            running.add(helpers.submit(() -> Searcher.forThread(helperBoard, gameKeys, control, table, id).search()));
+        }
+
+        SearchResult result;
+        try{
+            result = main.search();
+        }
+        finally{
+            control.stop();
+        }
+        if(running.isEmpty()){
+            return result;
+        }
+        //a helper that got further than the main thread before the limit hit gives the better answer
+        for(Future<SearchResult> helper : running){
+            SearchResult r = awaitHelper(helper);
+            if(r != null && r.depth() > result.depth()){
+                result = r;
+            }
+        }
+        return new SearchResult(result.move(), result.score(), result.depth(), main.nodes() + control.helperNodes(),
+                result.millis(), result.pv());
+    }
+
+    private static SearchResult awaitHelper(Future<SearchResult> helper) {
+        try{
+            return helper.get();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch(ExecutionException e){
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return the best move found within the limits, or null if the side to
+     * move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).bestMove();
+    }
+
+    /**
+     * Forgets every stored search result, e.g. before starting on an
+     * unrelated game
+     */
+    public void clearHash() {
+        table.clear();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
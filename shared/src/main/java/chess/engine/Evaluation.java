@@ -0,0 +1,44 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Static evaluation of a position from the point of view of the side to
+ * move, in centipawns.
+ * <p>
+ * The board keeps running middlegame and endgame totals of material and
+ * piece-square values, so evaluating only adds the pawn structure terms and
+ * blends the two by how much material is left. The search looks pawn
+ * structure up in a PawnTable, since it rarely changes from node to node.
+ */
+public final class Evaluation {
+
+    //rough piece values for move ordering, indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    private Evaluation() {
+    }
+
+    /**
+     * Tapers between the board's middlegame and endgame scores by game phase
+     */
+    public static int evaluate(ChessBoard board) {
+        return evaluate(board, PawnTable.evaluate(board));
+    }
+
+    /**
+     * Evaluates with the pawn structure score taken from a cache
+     */
+    static int evaluate(ChessBoard board, PawnTable pawns) {
+        return evaluate(board, pawns.probe(board));
+    }
+
+    private static int evaluate(ChessBoard board, long pawnScore) {
+        int mg = board.getMidgameScore() + PawnTable.mg(pawnScore);
+        int eg = board.getEndgameScore() + PawnTable.eg(pawnScore);
+        int phase = board.getGamePhase();
+        int score = (mg * phase + eg * (ChessBoard.MAX_GAME_PHASE - phase)) / ChessBoard.MAX_GAME_PHASE;
+        return board.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,162 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Pawn structure evaluation (doubled, isolated and passed pawns) with a small
+ * cache keyed by ChessBoard.getPawnKey.
+ * <p>
+ * The pawns move far less often than the other pieces, so most positions in
+ * a search share their pawn structure with one already seen and the score
+ * comes straight from the cache. Each search thread owns one table for
+ * good, so it needs no synchronization and starts every search warm. An
+ * empty slot has key 0 and score 0, which is also the right answer for a
+ * position with no pawns.
+ */
+final class PawnTable {
+
+    static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -20;
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    //passed pawn bonus by rank counted from the pawn's own side, 0 = first rank
+    private static final int[] PASSED_MG = {0, 5, 10, 20, 35, 60, 100, 0};
+    private static final int[] PASSED_EG = {0, 10, 20, 40, 70, 120, 200, 0};
+
+    private static final long FILE_A = 0x0101010101010101L;
+    //files beside each file
+    private static final long[] ADJACENT_FILES = new long[8];
+    //squares in front of a pawn on its own and the adjacent files, indexed by TeamColor ordinal and square
+    private static final long[][] PASSED_SPANS = new long[2][64];
+
+    static {
+        for(int file = 0; file < 8; file++){
+            ADJACENT_FILES[file] = (file > 0 ? FILE_A << (file - 1) : 0) | (file < 7 ? FILE_A << (file + 1) : 0);
+        }
+        for(int sq = 0; sq < 64; sq++){
+            long files = ADJACENT_FILES[sq & 7] | (FILE_A << (sq & 7));
+            int rank = sq >>> 3;
+            long above = rank == 7 ? 0 : -1L << ((rank + 1) * 8);
+            long below = rank == 0 ? 0 : -1L >>> ((8 - rank) * 8);
+            PASSED_SPANS[0][sq] = files & above;
+            PASSED_SPANS[1][sq] = files & below;
+        }
+    }
+
+    private final long[] keys;
+    //middlegame score in the high 32 bits, endgame in the low 32
+    private final long[] scores;
+    private final int mask;
+    private long hits;
+    private long probes;
+
+    /**
+     * @param entries number of slots, a power of two
+     */
+    PawnTable(int entries) {
+        if(Integer.bitCount(entries) != 1){
+            throw new IllegalArgumentException("Pawn table size must be a power of two, not " + entries);
+        }
+        keys = new long[entries];
+        scores = new long[entries];
+        mask = entries - 1;
+    }
+
+    /**
+     * @return the packed pawn structure score of the board, from the cache
+     * when its pawns have been seen before
+     */
+    long probe(ChessBoard board) {
+        long key = board.getPawnKey();
+        int i = (int) key & mask;
+        probes++;
+        if(keys[i] == key){
+            hits++;
+            return scores[i];
+        }
+        long score = evaluate(board);
+        keys[i] = key;
+        scores[i] = score;
+        return score;
+    }
+
+    /**
+     * Zeroes the counts behind hitRate, keeping the entries
+     */
+    void clearStats() {
+        hits = 0;
+        probes = 0;
+    }
+
+    /**
+     * @return the share of probes since clearStats answered from the cache,
+     * from 0 to 1
+     */
+    double hitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    /**
+     * Scores the pawn structure from scratch, from white's point of view
+     *
+     * @return the middlegame and endgame scores packed with pack
+     */
+    static long evaluate(ChessBoard board) {
+        long white = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long black = board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        int mg = 0;
+        int eg = 0;
+        for(int file = 0; file < 8; file++){
+            long fileMask = FILE_A << file;
+            int whiteCount = Long.bitCount(white & fileMask);
+            int blackCount = Long.bitCount(black & fileMask);
+            if(whiteCount > 1){
+                mg += DOUBLED_MG * (whiteCount - 1);
+                eg += DOUBLED_EG * (whiteCount - 1);
+            }
+            if(blackCount > 1){
+                mg -= DOUBLED_MG * (blackCount - 1);
+                eg -= DOUBLED_EG * (blackCount - 1);
+            }
+            if((white & ADJACENT_FILES[file]) == 0){
+                mg += ISOLATED_MG * whiteCount;
+                eg += ISOLATED_EG * whiteCount;
+            }
+            if((black & ADJACENT_FILES[file]) == 0){
+                mg -= ISOLATED_MG * blackCount;
+                eg -= ISOLATED_EG * blackCount;
+            }
+        }
+        for(long pawns = white; pawns != 0; pawns &= pawns - 1){
+            int sq = Long.numberOfTrailingZeros(pawns);
+            if((PASSED_SPANS[0][sq] & black) == 0){
+                mg += PASSED_MG[sq >>> 3];
+                eg += PASSED_EG[sq >>> 3];
+            }
+        }
+        for(long pawns = black; pawns != 0; pawns &= pawns - 1){
+            int sq = Long.numberOfTrailingZeros(pawns);
+            if((PASSED_SPANS[1][sq] & white) == 0){
+                mg -= PASSED_MG[7 - (sq >>> 3)];
+                eg -= PASSED_EG[7 - (sq >>> 3)];
+            }
+        }
+        return pack(mg, eg);
+    }
+
+    static long pack(int mg, int eg) {
+        return ((long) mg << 32) | (eg & 0xFFFFFFFFL);
+    }
+
+    static int mg(long score) {
+        return (int) (score >> 32);
+    }
+
+    static int eg(long score) {
+        return (int) score;
+    }
+}
@@ -0,0 +1,57 @@
+package chess.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State shared by the threads of one search: its limits, the stop signal,
+ * and node counts so every thread can see how much of the node limit is used
+ */
+final class SearchControl {
+
+    private final SearchLimits limits;
+    private final long deadline;
+    private final AtomicLong helperNodes = new AtomicLong();
+    //written only by the main thread, in batches
+    private volatile long mainNodes;
+    private volatile boolean stopped;
+
+    SearchControl(SearchLimits limits) {
+        this.limits = limits;
+        deadline = limits.timeMillis() == 0 ? Long.MAX_VALUE : System.nanoTime() + limits.timeMillis() * 1_000_000L;
+    }
+
+    SearchLimits limits() {
+        return limits;
+    }
+
+    /**
+     * @return the System.nanoTime at which the search must stop
+     */
+    long deadline() {
+        return deadline;
+    }
+
+    long helperNodes() {
+        return helperNodes.get();
+    }
+
+    void addHelperNodes(long nodes) {
+        helperNodes.addAndGet(nodes);
+    }
+
+    long mainNodes() {
+        return mainNodes;
+    }
+
+    void setMainNodes(long nodes) {
+        mainNodes = nodes;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+}
@@ -0,0 +1,34 @@
+package chess.engine;
+
+/**
+ * Bounds on a single search. A value of 0 leaves that bound off; the search
+ * stops at whichever bound is reached first, and at least one must be set so
+ * no search can run unbounded.
+ *
+ * @param depth      deepest iteration to run, in plies
+ * @param timeMillis wall clock budget for the whole search
+ * @param nodes      most positions to visit
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+
+    public SearchLimits {
+        if(depth < 0 || timeMillis < 0 || nodes < 0){
+            throw new IllegalArgumentException("Search limits cannot be negative");
+        }
+        if(depth == 0 && timeMillis == 0 && nodes == 0){
+            throw new IllegalArgumentException("Search limits must bound depth, time or nodes");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(0, millis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, 0, nodes);
+    }
+}
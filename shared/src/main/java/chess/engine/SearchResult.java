@@ -0,0 +1,41 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of a search, with moves in packed form (see Move)
+ *
+ * @param move   the best move found, or Move.NONE if the side to move has none
+ * @param score  its score in centipawns for the side to move; mates score
+ *               close to Searcher.MATE
+ * @param depth  the deepest iteration that finished
+ * @param nodes  positions visited
+ * @param millis time taken
+ * @param pv     the expected line of play starting with move
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long millis, int[] pv) {
+
+    /**
+     * @return the best move as a ChessMove, or null if there is none
+     */
+    public ChessMove bestMove() {
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Searcher.MATE_BOUND;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        for(int m : pv){
+            line.append(' ').append(Move.toString(m));
+        }
+        return "SearchResult{depth " + depth + " score " + score + " nodes " + nodes + " time " + millis + "ms pv" + line + "}";
+    }
+}
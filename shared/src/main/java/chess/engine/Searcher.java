@@ -0,0 +1,492 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * One search: iterative deepening over a principal variation search, with a
+ * quiescence search on captures at the leaves.
+ * <p>
+ * The searcher works on its own copy of the board with makeMove/unmakeMove
+ * and packed moves, and every per-ply buffer is allocated up front, so the
+ * tree itself allocates nothing. Results are shared with other searches
+ * through the transposition table.
+ * <p>
+ * Each thread keeps one searcher (see forThread) and reuses it for every
+ * search it runs, so the buffers are allocated once per thread and the pawn
+ * structure cache stays warm from one search to the next.
+ * <p>
+ * For a parallel (Lazy SMP) search several searchers run the same position
+ * on their own threads. They only cooperate through the table and the shared
+ * SearchControl: searcher 0 is the main one, which watches the limits, and
+ * the helpers mostly fill the table until they are told to stop. Odd
+ * numbered helpers start one ply deeper so the threads spread out over
+ * different depths.
+ */
+final class Searcher {
+
+    static final int MAX_PLY = 128;
+    static final int INFINITE = 32001;
+    static final int MATE = 32000;
+    //any score past this is a mate, MATE - score plies from the root
+    static final int MATE_BOUND = MATE - MAX_PLY;
+
+    //how many nodes to visit between looks at the clock
+    private static final int CLOCK_INTERVAL = 1024;
+    //move ordering bands, highest searched first
+    private static final int BEST_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 20;
+    private static final int KILLER_SCORE = CAPTURE_SCORE - 2;
+
+    //most positions from the game to check repetitions against; any further back the 50 move rule has applied
+    static final int GAME_KEYS = 100;
+
+    private static final ThreadLocal<Searcher> THREAD_SEARCHER = ThreadLocal.withInitial(Searcher::new);
+
+    //set for each search by forThread
+    private ChessBoard board;
+    private SearchControl control;
+    private TranspositionTable table;
+    //0 for the main searcher, 1 and up for helpers
+    private int id;
+
+    private final MoveList[] moves = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][];
+    //keys of the positions on the current line, to spot repetitions: ply p is at
+    //keys[GAME_KEYS + p], and the game's positions before the root come just before
+    private final long[] keys = new long[GAME_KEYS + MAX_PLY];
+    //how many of the game's positions are in keys
+    private int gameKeys;
+    private final int[][] killers = new int[MAX_PLY][2];
+    //cutoff counts for quiet moves, indexed by from and to square
+    private final int[][] history = new int[64][64];
+    //triangular principal variation table
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    //pawn structure scores, private to the thread so it needs no locking
+    private final PawnTable pawns = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+
+    private int rootBest;
+    private long nodes;
+    private boolean stopped;
+
+    private Searcher() {
+        for(int i = 0; i < MAX_PLY; i++){
+            moves[i] = new MoveList();
+            moveScores[i] = new int[256];
+        }
+    }
+
+    /**
+     * @return the calling thread's searcher as its last search left it
+     */
+    static Searcher current() {
+        return THREAD_SEARCHER.get();
+    }
+
+    /**
+     * Readies the calling thread's searcher for a new search. Only the pawn
+     * structure cache carries over from its last one.
+     *
+     * @param board    the position to search, which the searcher takes over
+     * @param gameKeys keys of the positions the game went through since its
+     *                 last capture or pawn move, oldest first, so lines that
+     *                 repeat one of them count as draws
+     * @param control  the limits and stop signal shared by the search's threads
+     * @param table    the table to share results through
+     * @param id       0 for the main searcher, otherwise the helper number
+     * @return the searcher, to be used on this thread only
+     */
+    static Searcher forThread(ChessBoard board, long[] gameKeys, SearchControl control, TranspositionTable table,
+                              int id) {
+        Searcher searcher = THREAD_SEARCHER.get();
+        int n = Math.min(gameKeys.length, GAME_KEYS);
+        System.arraycopy(gameKeys, gameKeys.length - n, searcher.keys, GAME_KEYS - n, n);
+        searcher.gameKeys = n;
+        searcher.board = board;
+        searcher.control = control;
+        searcher.table = table;
+        searcher.id = id;
+        for(int[] k : searcher.killers){
+            Arrays.fill(k, Move.NONE);
+        }
+        for(int[] h : searcher.history){
+            Arrays.fill(h, 0);
+        }
+        searcher.rootBest = Move.NONE;
+        searcher.nodes = 0;
+        searcher.stopped = false;
+        searcher.pawns.clearStats();
+        return searcher;
+    }
+
+    /**
+     * Deepens one ply at a time until a limit is hit, keeping the result of
+     * the last iteration that finished. Afterwards the searcher lets go of
+     * the board, control and table, so a thread that sits idle does not keep
+     * a dead engine's table alive.
+     */
+    SearchResult search() {
+        try{
+            return iterate();
+        }
+        finally{
+            board = null;
+            control = null;
+            table = null;
+        }
+    }
+
+    /**
+     * @return True if the searcher holds nothing from a search, as between
+     * searches
+     */
+    boolean isIdle() {
+        return board == null && control == null && table == null;
+    }
+
+    private SearchResult iterate() {
+        long start = System.nanoTime();
+        SearchLimits limits = control.limits();
+        int maxDepth = limits.depth() == 0 ? MAX_PLY - 1 : Math.min(limits.depth(), MAX_PLY - 1);
+
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generate(board, rootMoves);
+        if(rootMoves.isEmpty()){
+            return new SearchResult(Move.NONE, board.isInCheck() ? -MATE : 0, 0, 0, 0, new int[0]);
+        }
+
+        int bestScore = 0;
+        int completed = 0;
+        int[] line = {rootMoves.get(0)};
+        rootBest = Move.NONE;
+        for(int depth = 1 + (id & 1); depth <= maxDepth; depth++){
+            int score = search(depth, -INFINITE, INFINITE, 0);
+            if(stopped){
+                break;
+            }
+            bestScore = score;
+            completed = depth;
+            line = Arrays.copyOf(pv[0], pvLength[0]);
+            rootBest = line[0];
+            if(Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= depth){
+                break;
+            }
+            if(rootMoves.size() == 1){
+                break;
+            }
+        }
+        if(id != 0){
+            control.addHelperNodes(nodes % CLOCK_INTERVAL);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(line[0], bestScore, completed, nodes, millis, line);
+    }
+
+    /**
+     * Principal variation search: the first move gets the full window and the
+     * rest a null window, re-searched only if they turn out better
+     *
+     * @return the score of the position for the side to move
+     */
+    private int search(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        long key = board.getKey();
+        keys[GAME_KEYS + ply] = key;
+        if(ply > 0){
+            if(isDraw(ply)){
+                return 0;
+            }
+            //no line from here can beat a mate already found nearer the root
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if(alpha >= beta){
+                return alpha;
+            }
+        }
+        boolean inCheck = board.isInCheck();
+        if(inCheck){
+            depth++;
+        }
+        if(depth <= 0 || ply >= MAX_PLY - 1){
+            return quiesce(alpha, beta, ply);
+        }
+        if(visit()){
+            return 0;
+        }
+
+        //outside the principal variation a deep enough stored result settles the node
+        int hashMove = Move.NONE;
+        long entry = table.probe(key);
+        if(entry != 0){
+            hashMove = TranspositionTable.move(entry);
+            if(beta - alpha == 1 && TranspositionTable.depth(entry) >= depth){
+                int score = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if(bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)){
+                    return score;
+                }
+            }
+        }
+
+        MoveList list = moves[ply];
+        list.clear();
+        MoveGenerator.generate(board, list);
+        if(list.isEmpty()){
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(list, ply, ply == 0 && rootBest != Move.NONE ? rootBest : hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITE;
+        int bestMove = Move.NONE;
+        for(int i = 0; i < list.size(); i++){
+            int move = pick(list, ply, i);
+            boolean quiet = isQuiet(move);
+            long undo = board.makeMove(move);
+            int score;
+            if(i == 0){
+                score = -search(depth - 1, -beta, -alpha, ply + 1);
+            }
+            else{
+                score = -search(depth - 1, -alpha - 1, -alpha, ply + 1);
+                if(score > alpha && score < beta){
+                    score = -search(depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            board.unmakeMove(undo);
+            if(stopped){
+                return 0;
+            }
+
+            if(score > best){
+                best = score;
+                if(score > alpha){
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if(score >= beta){
+                        if(quiet){
+                            storeKiller(ply, move);
+                            history[Move.from(move)][Move.to(move)] += depth * depth;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, TranspositionTable.scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures until the position is quiet, so the static evaluation
+     * is never taken in the middle of an exchange. The side to move may stand
+     * pat on its evaluation unless it is in check.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if(visit()){
+            return 0;
+        }
+        if(ply >= MAX_PLY - 1){
+            return Evaluation.evaluate(board, pawns);
+        }
+
+        MoveList list = moves[ply];
+        list.clear();
+        int best;
+        if(board.isInCheck()){
+            MoveGenerator.generate(board, list);
+            if(list.isEmpty()){
+                return -MATE + ply;
+            }
+            best = -INFINITE;
+        }
+        else{
+            best = Evaluation.evaluate(board, pawns);
+            if(best >= beta){
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            MoveGenerator.generateCaptures(board, list);
+        }
+        scoreMoves(list, ply, Move.NONE);
+
+        for(int i = 0; i < list.size(); i++){
+            int move = pick(list, ply, i);
+            long undo = board.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            board.unmakeMove(undo);
+            if(stopped){
+                return 0;
+            }
+            if(score > best){
+                best = score;
+                if(score > alpha){
+                    alpha = score;
+                    updatePv(ply, move);
+                    if(score >= beta){
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks whether to stop. The main searcher checks the
+     * node limit against every thread's nodes and the clock. Helpers report
+     * their nodes in batches and check the node limit only then, so a
+     * parallel search can overshoot the limit by a batch per thread.
+     *
+     * @return True if the search must stop
+     */
+    private boolean visit() {
+        nodes++;
+        long limit = control.limits().nodes();
+        if(id == 0){
+            if(limit != 0 && nodes + control.helperNodes() >= limit){
+                control.stop();
+            }
+            else if(nodes % CLOCK_INTERVAL == 0){
+                control.setMainNodes(nodes);
+                if(System.nanoTime() >= control.deadline()){
+                    control.stop();
+                }
+            }
+        }
+        else if(nodes % CLOCK_INTERVAL == 0){
+            control.addHelperNodes(CLOCK_INTERVAL);
+            if(limit != 0 && control.helperNodes() + control.mainNodes() >= limit){
+                control.stop();
+            }
+        }
+        stopped = control.isStopped();
+        return stopped;
+    }
+
+    /**
+     * Draws by the fifty-move rule, insufficient material, or a repetition
+     * of a position earlier on the current line or in the game before it
+     */
+    private boolean isDraw(int ply) {
+        int clock = board.getHalfmoveClock();
+        if(clock >= 100 || board.hasInsufficientMaterial()){
+            return true;
+        }
+        long key = keys[GAME_KEYS + ply];
+        for(int i = ply - 4; i >= -gameKeys && i >= ply - clock; i -= 2){
+            if(keys[GAME_KEYS + i] == key){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders moves: the given best move first, then captures by most valuable
+     * victim and least valuable attacker, then killers, then quiet moves by
+     * history
+     */
+    private void scoreMoves(MoveList list, int ply, int bestMove) {
+        int[] scores = moveScores[ply];
+        for(int i = 0; i < list.size(); i++){
+            int move = list.get(i);
+            int score;
+            if(move == bestMove){
+                score = BEST_MOVE_SCORE;
+            }
+            else if(!isQuiet(move)){
+                ChessPiece victim = board.getPiece(Move.to(move));
+                int victimValue = victim == null ? 0 : Evaluation.VALUES[victim.getPieceType().ordinal()];
+                if(Move.isPromotion(move)){
+                    victimValue += Evaluation.VALUES[Move.promotion(move).ordinal()];
+                }
+                else if(victim == null){
+                    victimValue = Evaluation.VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+                }
+                score = CAPTURE_SCORE + victimValue * 8 - attackerOrder(move);
+            }
+            else if(move == killers[ply][0]){
+                score = KILLER_SCORE;
+            }
+            else if(move == killers[ply][1]){
+                score = KILLER_SCORE - 1;
+            }
+            else{
+                score = Math.min(history[Move.from(move)][Move.to(move)], KILLER_SCORE - 2);
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Swaps the best scored of the remaining moves into slot i and returns it
+     */
+    private int pick(MoveList list, int ply, int i) {
+        int[] scores = moveScores[ply];
+        int best = i;
+        for(int j = i + 1; j < list.size(); j++){
+            if(scores[j] > scores[best]){
+                best = j;
+            }
+        }
+        int move = list.get(best);
+        if(best != i){
+            list.set(best, list.get(i));
+            list.set(i, move);
+            int score = scores[best];
+            scores[best] = scores[i];
+            scores[i] = score;
+        }
+        return move;
+    }
+
+    /**
+     * @return True unless the move captures, captures en passant or promotes
+     */
+    private boolean isQuiet(int move) {
+        if(Move.isPromotion(move) || board.getPiece(Move.to(move)) != null){
+            return false;
+        }
+        ChessPiece piece = board.getPiece(Move.from(move));
+        //a pawn moving diagonally onto an empty square is taking en passant
+        return piece.getPieceType() != ChessPiece.PieceType.PAWN || ((Move.from(move) ^ Move.to(move)) & 7) == 0;
+    }
+
+    private int attackerOrder(int move) {
+        return Evaluation.VALUES[board.getPiece(Move.from(move)).getPieceType().ordinal()] / 100;
+    }
+
+    private void storeKiller(int ply, int move) {
+        if(killers[ply][0] != move){
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    PawnTable pawnTable() {
+        return pawns;
+    }
+}
@@ -0,0 +1,184 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by ChessBoard.getKey,
+ * shared without locks between every search on an Engine.
+ * <p>
+ * The table is one long array allocated up front, so it never adds garbage.
+ * Each entry is two longs: the key XORed with the data, then the data. A
+ * reader accepts an entry only if XORing the two gives back its key, which
+ * rejects entries another thread was halfway through writing as well as
+ * entries for other positions.
+ * <p>
+ * Entries sit in buckets of two. The first slot keeps the deepest result seen
+ * for this search and the second always takes the newest, so deep results
+ * survive without the table filling up with stale ones.
+ */
+public final class TranspositionTable {
+
+    //bound types: the stored score is exact, a lower bound (fail high) or an upper bound (fail low)
+    static final int EXACT = 1;
+    static final int LOWER = 2;
+    static final int UPPER = 3;
+
+    public static final int MAX_MEGABYTES = 8192;
+
+    //data layout: move in bits 0-15, score in 16-31, depth in 32-39, bound in 40-41, generation in 42-49
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+    private static final int GENERATION_MASK = 0xFF;
+    //longs per bucket: two entries of key ^ data and data
+    private static final int BUCKET_LONGS = 4;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * @param megabytes memory to use, rounded down to a power of two
+     * @throws IllegalArgumentException if megabytes is not between 1 and
+     *                                  MAX_MEGABYTES
+     */
+    public TranspositionTable(int megabytes) {
+        if(megabytes < 1 || megabytes > MAX_MEGABYTES){
+            throw new IllegalArgumentException("Table size must be 1-" + MAX_MEGABYTES + " MB, not " + megabytes);
+        }
+        int buckets = Integer.highestOneBit((int) ((long) megabytes * 1024 * 1024 / (BUCKET_LONGS * Long.BYTES)));
+        table = new long[buckets * BUCKET_LONGS];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier ones give way
+     * to new results even when they are deeper
+     */
+    void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * @return the stored data for key, or 0 if there is none
+     */
+    long probe(long key) {
+        int i = index(key);
+        long data = table[i + 1];
+        if((table[i] ^ data) == key && data != 0){
+            return data;
+        }
+        data = table[i + 3];
+        if((table[i + 2] ^ data) == key && data != 0){
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, preferring to keep the deeper of it and the
+     * result already in the first slot
+     *
+     * @param score a score from scoreToTable, so mates do not depend on ply
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        long data = (move & 0xFFFFL) | ((score & 0xFFFFL) << SCORE_SHIFT) | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT) | ((long) generation << GENERATION_SHIFT);
+        int i = index(key);
+        long old = table[i + 1];
+        if((table[i] ^ old) == key || depth(old) <= depth || generation(old) != generation){
+            if(move == 0 && (table[i] ^ old) == key){
+                //keep the best move from an earlier search of this position
+                data |= move(old);
+            }
+            table[i] = key ^ data;
+            table[i + 1] = data;
+        }
+        else{
+            table[i + 2] = key ^ data;
+            table[i + 3] = data;
+        }
+    }
+
+    /**
+     * @return roughly how full the table is, in thousandths, sampled from the
+     * first thousand buckets
+     */
+    public int hashfull() {
+        int buckets = Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for(int b = 0; b < buckets; b++){
+            for(int slot = 1; slot < BUCKET_LONGS; slot += 2){
+                long data = table[b * BUCKET_LONGS + slot];
+                if(data != 0 && generation(data) == generation){
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (buckets * 2);
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_LONGS;
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & GENERATION_MASK);
+    }
+
+    /**
+     * Converts a mate score from distance-to-root to distance-to-this-node,
+     * so it stays right wherever in the tree the position turns up again
+     */
+    static int scoreToTable(int score, int ply) {
+        if(score >= Searcher.MATE_BOUND){
+            return score + ply;
+        }
+        if(score <= -Searcher.MATE_BOUND){
+            return score - ply;
+        }
+        return score;
+    }
+
+    static int scoreFromTable(int score, int ply) {
+        if(score >= Searcher.MATE_BOUND){
+            return score - ply;
+        }
+        if(score <= -Searcher.MATE_BOUND){
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,177 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameTests {
+
+    private static ChessMove move(String text) {
+        int m = Move.of((text.charAt(1) - '1') * 8 + text.charAt(0) - 'a', (text.charAt(3) - '1') * 8 + text.charAt(2) - 'a');
+        return Move.toChessMove(m);
+    }
+
+    private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for(String m : moves){
+            game.makeMove(move(m));
+        }
+    }
+
+    @Test
+    @DisplayName("Status After Checkmate")
+    public void statusCheckmate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "f2f3", "e7e5", "g2g4");
+        GameStatus status = game.getGameStatus();
+        Assertions.assertFalse(status.isInCheck());
+        Assertions.assertSame(status, game.getGameStatus());
+
+        play(game, "d8h4");
+        status = game.getGameStatus();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, status.getTeamTurn());
+        Assertions.assertTrue(status.isInCheck());
+        Assertions.assertTrue(status.isCheckmate());
+        Assertions.assertFalse(status.isStalemate());
+        Assertions.assertTrue(status.isGameOver());
+        Assertions.assertEquals(game.isInCheckmate(ChessGame.TeamColor.WHITE), status.isCheckmate());
+    }
+
+    @Test
+    @DisplayName("Status Follows Board Edits")
+    public void statusInvalidated() {
+        ChessGame game = ChessGame.fromFen("7k/8/6Q1/8/8/8/8/K7 w - - 0 1");
+        Assertions.assertFalse(game.getGameStatus().isGameOver());
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(game.getGameStatus().isStalemate());
+        game.getBoard().addPiece(new ChessPosition(7, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        Assertions.assertTrue(game.getGameStatus().isCheckmate());
+    }
+
+    @Test
+    @DisplayName("Legal Moves Follow Board Changes")
+    public void legalMovesInvalidated() {
+        ChessGame game = new ChessGame();
+        ChessPosition e2 = new ChessPosition(2, 5);
+        Assertions.assertEquals(2, game.validMoves(e2).size());
+        game.getBoard().addPiece(new ChessPosition(3, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(0, game.validMoves(e2).size());
+
+        ChessGame other = ChessGame.fromFen("4k3/8/8/8/8/8/8/4R1K1 w - - 0 1");
+        game.setBoard(other.getBoard());
+        Assertions.assertNull(game.getBoard().getPiece(e2));
+        Assertions.assertEquals(12, game.validMoves(new ChessPosition(1, 5)).size());
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(4, game.validMoves(new ChessPosition(8, 5)).size());
+    }
+
+    @Test
+    @DisplayName("Off-Board Moves Are Rejected")
+    public void offBoard() {
+        //packed naively these alias onto a4 and a1 with the promotion bits clobbered
+        String[] fens = {"4k3/8/8/8/8/8/8/R3K3 w - - 0 1", "4k3/8/8/8/8/8/1p6/4K3 b - - 0 1"};
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(1, 1), new ChessPosition(3, 9), null),
+                new ChessMove(new ChessPosition(2, 2), new ChessPosition(9, 1), ChessPiece.PieceType.QUEEN),
+        };
+        for(int i = 0; i < fens.length; i++){
+            ChessGame game = ChessGame.fromFen(fens[i]);
+            ChessMove move = moves[i];
+            Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(move));
+            Assertions.assertEquals(fens[i], game.toFen());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Move.encode(move));
+        }
+
+        ChessBoard board = new ChessBoard();
+        ChessPiece rook = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.addPiece(new ChessPosition(3, 9), rook));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.addPiece(new ChessPosition(0, 1), rook));
+        Assertions.assertEquals(0, board.getOccupied());
+    }
+
+    @Test
+    @DisplayName("Castling and En Passant Through makeMove")
+    public void specialMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "e2e4", "a7a6", "e4e5", "d7d5", "e5d6", "a6a5", "g1f3", "a5a4", "f1e2", "a4a3", "e1g1");
+        Assertions.assertEquals("rnbqkbnr/1pp1pppp/3P4/8/8/p4N2/PPPPBPPP/RNBQ1RK1 b kq - 1 6", game.toFen());
+        Assertions.assertThrows(InvalidMoveException.class, () -> play(game, "e8c8"));
+    }
+
+    @Test
+    @DisplayName("Undo, Redo and Jump to Ply")
+    public void history() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertFalse(game.undo());
+        play(game, "e2e4", "d7d5", "e4d5", "g8f6");
+        String fen = game.toFen();
+
+        Assertions.assertTrue(game.undo());
+        Assertions.assertTrue(game.undo());
+        Assertions.assertEquals(2, game.getPly());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2", game.toFen());
+
+        game.jumpToPly(0);
+        Assertions.assertEquals(Fen.START, game.toFen());
+        game.jumpToPly(4);
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertFalse(game.redo());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.jumpToPly(5));
+
+        game.jumpToPly(1);
+        play(game, "e7e5");
+        Assertions.assertEquals(2, game.getLastPly());
+        Assertions.assertFalse(game.redo());
+
+        game.getBoard().resetBoard();
+        Assertions.assertEquals(0, game.getPly());
+        Assertions.assertFalse(game.undo());
+    }
+
+    @Test
+    @DisplayName("Repetition and Move Rule Draws")
+    public void draws() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(int i = 0; i < 2; i++){
+            Assertions.assertFalse(game.getGameStatus().isThreefoldRepetition());
+            play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        }
+        GameStatus status = game.getGameStatus();
+        Assertions.assertEquals(3, status.getRepetitions());
+        Assertions.assertTrue(status.isDrawClaimable());
+        Assertions.assertFalse(status.isGameOver());
+
+        play(game, "e2e4");
+        Assertions.assertEquals(1, game.getGameStatus().getRepetitions());
+        game.undo();
+        Assertions.assertTrue(game.getGameStatus().isThreefoldRepetition());
+
+        game.loadFen("7k/8/8/8/8/8/8/K6R w - - 99 80");
+        Assertions.assertFalse(game.getGameStatus().isFiftyMoveRule());
+        play(game, "h1h2");
+        Assertions.assertTrue(game.getGameStatus().isFiftyMoveRule());
+        Assertions.assertFalse(game.getGameStatus().isSeventyFiveMoveRule());
+        game.loadFen("7k/8/8/8/8/8/8/K6R b - - 150 80");
+        Assertions.assertTrue(game.getGameStatus().isGameOver());
+    }
+
+    @Test
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial() throws InvalidMoveException {
+        Assertions.assertFalse(new ChessGame().getGameStatus().isInsufficientMaterial());
+        Assertions.assertTrue(ChessGame.fromFen("8/8/4k3/8/8/8/8/K7 w - - 0 1").getGameStatus().isInsufficientMaterial());
+        Assertions.assertTrue(ChessGame.fromFen("8/8/4k3/8/8/8/8/KN6 w - - 0 1").getGameStatus().isGameOver());
+        Assertions.assertTrue(ChessGame.fromFen("8/8/3bk3/8/8/8/8/K1B5 w - - 0 1").getGameStatus().isInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("8/8/4k1b1/8/8/8/8/K1B5 w - - 0 1").getGameStatus().isInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("8/8/4k3/8/8/8/8/KNN5 w - - 0 1").getGameStatus().isInsufficientMaterial());
+
+        ChessGame game = ChessGame.fromFen("8/8/4k3/8/8/8/4r3/K3N3 b - - 0 1");
+        Assertions.assertEquals(1, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        play(game, "e2e1");
+        Assertions.assertEquals(0, game.getBoard().getPieceCount(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertFalse(game.getGameStatus().isInsufficientMaterial());
+    }
+}
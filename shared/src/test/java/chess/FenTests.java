@@ -0,0 +1,88 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Start Position Matches resetBoard")
+    public void startPosition() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        ChessBoard expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected, game.getBoard());
+        Assertions.assertEquals(expected.getKey(), game.getBoard().getKey());
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Round Trip")
+    public void roundTrip() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+        };
+        for(String fen : fens){
+            Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Update State")
+    public void movesUpdateState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        //scores kept up while playing agree with a board built from scratch
+        ChessBoard loaded = Fen.toBoard(game.toFen());
+        Assertions.assertEquals(loaded.getMidgameScore(), game.getBoard().getMidgameScore());
+        Assertions.assertEquals(loaded.getEndgameScore(), game.getBoard().getEndgameScore());
+        Assertions.assertEquals(ChessBoard.MAX_GAME_PHASE, loaded.getGamePhase());
+        Assertions.assertEquals(0, Fen.toBoard(Fen.START).getMidgameScore());
+    }
+
+    @Test
+    @DisplayName("Invalid FEN")
+    public void invalid() {
+        String[] fens = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e5 0 1",
+                "4k3/8/8/8/8/8/8/R3K3 w - - 65536 200",
+                "rnbqkbnr/pppppppp/8/8/8 w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 x",
+        };
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20");
+        for(String fen : fens){
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+            //a bad position leaves a live game untouched
+            Assertions.assertThrows(IllegalArgumentException.class, () -> game.loadFen(fen), fen);
+            Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20", game.toFen(), fen);
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        }
+    }
+
+    @Test
+    @DisplayName("Halfmove Clock Limit")
+    public void halfmoveClockLimit() throws InvalidMoveException {
+        //the clock has to fit its field in an undo record, or unmaking reads it back as flags
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 65535 200");
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(1, 2), null));
+        Assertions.assertEquals(ChessBoard.MAX_HALFMOVE_CLOCK, game.getBoard().getHalfmoveClock());
+        game.undo();
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/R3K3 w - - 65535 200", game.toFen());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> game.getBoard().setHalfmoveClock(ChessBoard.MAX_HALFMOVE_CLOCK + 1));
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Round Trip")
+    public void roundTrip() {
+        String[] fens = {
+                Fen.START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+        };
+        for(String fen : fens){
+            ChessGame game = ChessGame.fromFen(fen);
+            byte[] bytes = GameCodec.encode(game);
+            Assertions.assertEquals(GameCodec.SIZE, bytes.length);
+            ChessGame decoded = GameCodec.decode(bytes);
+            Assertions.assertEquals(fen, decoded.toFen());
+            Assertions.assertEquals(game.getTeamTurn(), decoded.getTeamTurn());
+            Assertions.assertEquals(game.getBoard().getKey(), decoded.getBoard().getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Gson Adapter")
+    public void gsonAdapter() {
+        Gson gson = new GsonBuilder().registerTypeAdapter(ChessGame.class, GameCodec.gsonAdapter()).create();
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2");
+        String json = gson.toJson(game);
+        Assertions.assertTrue(json.length() < new Gson().toJson(game).length() / 10, json);
+        Assertions.assertEquals(game.toFen(), gson.fromJson(json, ChessGame.class).toFen());
+    }
+
+    @Test
+    @DisplayName("Plain Gson")
+    public void plainGson() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        String json = gson.toJson(game);
+        Assertions.assertFalse(json.contains("pieceBB"), json);
+        ChessGame loaded = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game.toFen(), loaded.toFen());
+        Assertions.assertEquals(game.getBoard().getKey(), loaded.getBoard().getKey());
+        Assertions.assertEquals(game.getBoard().getMidgameScore(), loaded.getBoard().getMidgameScore());
+
+        //games saved before the board kept any other state hold only its pieces
+        JsonObject old = gson.fromJson(json, JsonObject.class);
+        JsonElement pieces = old.getAsJsonObject("b").get("pieces");
+        JsonObject oldBoard = new JsonObject();
+        oldBoard.add("pieces", pieces);
+        old.add("b", oldBoard);
+        loaded = gson.fromJson(old, ChessGame.class);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, loaded.getBoard().getTeamTurn());
+        Assertions.assertEquals(2, loaded.validMoves(new ChessPosition(7, 4)).size());
+        Assertions.assertEquals(game.getBoard().getKey(), loaded.getBoard().getKey());
+        loaded.makeMove(new ChessMove(new ChessPosition(7, 6), new ChessPosition(6, 6), null));
+        loaded.makeMove(new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 8), null));
+        Assertions.assertTrue(loaded.isInCheck(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Invalid Bytes")
+    public void invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[5]));
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 9;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(bytes)));
+
+        //a corrupt piece code or en passant byte late in the row leaves the game as it was
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20";
+        ChessGame game = ChessGame.fromFen(fen);
+        byte[] badPiece = GameCodec.encode(new ChessGame());
+        badPiece[32] = (byte) 0xEE;
+        byte[] badEp = GameCodec.encode(new ChessGame());
+        badEp[34] = 80;
+        for(byte[] bad : new byte[][]{badPiece, badEp}){
+            ByteBuffer in = ByteBuffer.wrap(bad);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(in, game));
+            Assertions.assertEquals(fen, game.toFen());
+            Assertions.assertEquals(0, in.position());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+    @Test
+    @DisplayName("Perft Node Counts")
+    public void knownCounts() {
+        for(Perft.Position position : Perft.POSITIONS){
+            ChessBoard board = Fen.toBoard(position.fen());
+            for(int depth = 1; depth <= position.counts().length; depth++){
+                Assertions.assertEquals(position.counts()[depth - 1], Perft.perft(board, depth),
+                        position.name() + " perft(" + depth + ")");
+                Assertions.assertEquals(position.counts()[depth - 1], Perft.perftBulk(board, depth),
+                        position.name() + " bulk perft(" + depth + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Legal Generator Matches pieceMoves")
+    public void matchesReference() {
+        for(Perft.Position position : Perft.POSITIONS){
+            ChessBoard board = Fen.toBoard(position.fen());
+            int depth = Math.min(3, position.counts().length);
+            Assertions.assertEquals(Perft.perftReference(board, depth), Perft.perft(board, depth),
+                    position.name() + " perft(" + depth + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("Make and Unmake Restore the Board")
+    public void unmakeRestores() {
+        for(Perft.Position position : Perft.POSITIONS){
+            ChessBoard board = Fen.toBoard(position.fen());
+            ChessBoard copy = new ChessBoard(board);
+            long key = board.getKey();
+            Perft.perft(board, 3);
+            Assertions.assertEquals(copy, board, position.name());
+            Assertions.assertEquals(key, board.getKey(), position.name());
+            Assertions.assertEquals(copy.getPawnKey(), board.getPawnKey(), position.name());
+            Assertions.assertEquals(copy.getMidgameScore(), board.getMidgameScore(), position.name());
+            Assertions.assertEquals(copy.getEndgameScore(), board.getEndgameScore(), position.name());
+            Assertions.assertEquals(copy.getGamePhase(), board.getGamePhase(), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Incremental Keys Match Keys From Scratch")
+    public void keysFromScratch() {
+        //castles and en passant captures seen along the way
+        int[] special = new int[2];
+        for(Perft.Position position : Perft.POSITIONS){
+            checkKeys(Fen.toBoard(position.fen()), Math.min(3, position.counts().length), special, position.name());
+        }
+        Assertions.assertTrue(special[0] > 0 && special[1] > 0, special[0] + " castles, " + special[1] + " en passant");
+    }
+
+    private static void checkKeys(ChessBoard board, int depth, int[] special, String name) {
+        MoveList list = new MoveList();
+        MoveGenerator.generate(board, list);
+        for(int i = 0; i < list.size(); i++){
+            int move = list.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+            if(type == ChessPiece.PieceType.KING && Math.abs(from - to) == 2){
+                special[0]++;
+            }
+            else if(type == ChessPiece.PieceType.PAWN && ((from ^ to) & 7) != 0 && board.getPiece(to) == null){
+                special[1]++;
+            }
+            long undo = board.makeMove(move);
+            String at = name + " after " + Move.toString(move);
+            Assertions.assertEquals(keyFromScratch(board, false), board.getKey(), at);
+            Assertions.assertEquals(keyFromScratch(board, true), board.getPawnKey(), at);
+            long occupied = 0;
+            for(int sq = 0; sq < 64; sq++){
+                ChessPiece piece = board.getPiece(sq);
+                if(piece != null){
+                    occupied |= 1L << sq;
+                    Assertions.assertTrue((board.getPieces(piece.getTeamColor(), piece.getPieceType()) & 1L << sq) != 0, at);
+                }
+            }
+            Assertions.assertEquals(occupied, board.getOccupied(), at);
+            if(depth > 1){
+                checkKeys(board, depth - 1, special, name);
+            }
+            board.unmakeMove(undo);
+            Assertions.assertEquals(keyFromScratch(board, false), board.getKey(), name + " undoing " + Move.toString(move));
+        }
+    }
+
+    /**
+     * Hashes the board square by square, the long way ChessBoard avoids
+     */
+    private static long keyFromScratch(ChessBoard board, boolean pawnsOnly) {
+        long key = 0;
+        for(int sq = 0; sq < 64; sq++){
+            ChessPiece piece = board.getPiece(sq);
+            if(piece != null && (!pawnsOnly || piece.getPieceType() == ChessPiece.PieceType.PAWN)){
+                key ^= Zobrist.PIECE_SQUARE[Bitboards.index(piece)][sq];
+            }
+        }
+        if(pawnsOnly){
+            return key;
+        }
+        key ^= Zobrist.CASTLING[board.getCastlingRights()];
+        ChessGame.TeamColor us = board.getTeamTurn();
+        if(us == ChessGame.TeamColor.BLACK){
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        //the en passant file counts only if a pawn to move stands beside the pawn that just advanced
+        ChessPosition ep = board.getEnPassantSquare();
+        if(ep != null){
+            int row = us == ChessGame.TeamColor.WHITE ? ep.getRow() - 1 : ep.getRow() + 1;
+            for(int col = ep.getColumn() - 1; col <= ep.getColumn() + 1; col += 2){
+                ChessPiece piece = col < 1 || col > 8 ? null : board.getPiece(new ChessPosition(row, col));
+                if(piece != null && piece.getTeamColor() == us && piece.getPieceType() == ChessPiece.PieceType.PAWN){
+                    key ^= Zobrist.EN_PASSANT_FILE[ep.getColumn() - 1];
+                    break;
+                }
+            }
+        }
+        return key;
+    }
+}
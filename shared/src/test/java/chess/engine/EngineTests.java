@@ -0,0 +1,136 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EngineTests {
+
+    private static String best(String fen, SearchLimits limits) {
+        SearchResult result = new Engine().search(ChessGame.fromFen(fen), limits);
+        return Move.toString(result.move());
+    }
+
+    @Test
+    @DisplayName("Finds Mate in One")
+    public void mateInOne() {
+        SearchResult result = new Engine().search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), SearchLimits.depth(4));
+        Assertions.assertEquals("a1a8", Move.toString(result.move()));
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(Searcher.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds Mate in Two")
+    public void mateInTwo() {
+        //1. Nf6+ gxf6 2. Bxf7#
+        SearchResult result = new Engine().search(ChessGame.fromFen("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1"),
+                SearchLimits.depth(5));
+        Assertions.assertEquals("d5f6", Move.toString(result.move()));
+        Assertions.assertEquals(Searcher.MATE - 3, result.score());
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Material")
+    public void winsMaterial() {
+        Assertions.assertEquals("d1d5", best("3k4/8/8/3q4/8/8/8/3QK3 w - - 0 1", SearchLimits.depth(3)));
+        Assertions.assertEquals("e4d5", best("4k3/8/8/3q4/4P3/8/8/4K3 w - - 0 1", SearchLimits.depth(3)));
+    }
+
+    @Test
+    @DisplayName("No Moves Left")
+    public void noMoves() {
+        SearchResult mated = new Engine().search(ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"), SearchLimits.depth(3));
+        Assertions.assertEquals(Move.NONE, mated.move());
+        Assertions.assertNull(mated.bestMove());
+        Assertions.assertEquals(-Searcher.MATE, mated.score());
+    }
+
+    @Test
+    @DisplayName("Stops at the Node and Time Limits")
+    public void limits() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        SearchResult result = new Engine().search(game, SearchLimits.nodes(5000));
+        Assertions.assertTrue(result.nodes() <= 5000);
+        Assertions.assertNotEquals(Move.NONE, result.move());
+
+        //the clock is only checked loosely, so a busy machine cannot fail this
+        long start = System.nanoTime();
+        result = new Engine().search(game, SearchLimits.time(200));
+        Assertions.assertTrue((System.nanoTime() - start) / 1_000_000 < 10_000);
+        Assertions.assertNotEquals(Move.NONE, result.move());
+        Assertions.assertEquals(Fen.START, game.toFen());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(0, 0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchLimits.nodes(-1));
+    }
+
+    @Test
+    @DisplayName("Sees Repetitions of Earlier Game Positions")
+    public void gameRepetitions() throws InvalidMoveException {
+        //black is lost, but Nf6-g8 repeats the starting position of the game
+        ChessGame game = ChessGame.fromFen("6nk/8/8/8/8/8/Q7/K5N1 w - - 0 1");
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        Assertions.assertEquals(3, game.getRepetitionKeys().length);
+
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals("f6g8", Move.toString(result.move()));
+        Assertions.assertEquals(0, result.score());
+        //the same position without its history is just lost
+        Assertions.assertTrue(new Engine().search(ChessGame.fromFen(game.toFen()), SearchLimits.depth(3)).score() < -500);
+    }
+
+    @Test
+    @DisplayName("Table Carries Results Between Searches")
+    public void sharedTable() {
+        Engine engine = new Engine(4);
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult cold = engine.search(game, SearchLimits.depth(5));
+        Assertions.assertTrue(engine.getTable().hashfull() > 0);
+        SearchResult warm = engine.search(game, SearchLimits.depth(5));
+        Assertions.assertTrue(warm.nodes() < cold.nodes() / 2, warm.nodes() + " vs " + cold.nodes());
+
+        engine.clearHash();
+        Assertions.assertEquals(0, engine.getTable().hashfull());
+    }
+
+    @Test
+    @DisplayName("Single Thread Searches Are Deterministic")
+    public void deterministic() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult first = new Engine(4, 1).search(game, SearchLimits.nodes(50_000));
+        SearchResult second = new Engine(4, 1).search(game, SearchLimits.nodes(50_000));
+        Assertions.assertEquals(first.move(), second.move());
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertEquals(first.nodes(), second.nodes());
+        Assertions.assertArrayEquals(first.pv(), second.pv());
+    }
+
+    @Test
+    @DisplayName("Parallel Search")
+    public void parallel() {
+        Engine engine = new Engine(4, 4);
+        Assertions.assertEquals(4, engine.getThreads());
+        SearchResult mate = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), SearchLimits.depth(4));
+        Assertions.assertEquals("a1a8", Move.toString(mate.move()));
+
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        SearchResult result = engine.search(game, SearchLimits.depth(5));
+        Assertions.assertNotEquals(Move.NONE, result.move());
+        Assertions.assertEquals(5, result.depth());
+        Assertions.assertEquals(result.move(), result.pv()[0]);
+
+        result = engine.search(game, SearchLimits.nodes(20_000));
+        Assertions.assertTrue(result.nodes() < 20_000 + 4 * 1024, String.valueOf(result.nodes()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Engine(4, 0));
+    }
+}
@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PawnTableTests {
+
+    @Test
+    @DisplayName("Pawn Key Follows Only Pawns")
+    public void pawnKey() {
+        ChessBoard board = Fen.toBoard(Fen.START);
+        long start = board.getPawnKey();
+        Assertions.assertNotEquals(0, start);
+        Assertions.assertEquals(0, Fen.toBoard("4k3/8/8/8/8/8/8/R3K3 w - - 0 1").getPawnKey());
+
+        long undo = board.makeMove(Move.of(6, 21));
+        Assertions.assertEquals(start, board.getPawnKey());
+        board.unmakeMove(undo);
+        board.makeMove(Move.of(12, 28));
+        Assertions.assertNotEquals(start, board.getPawnKey());
+        Assertions.assertEquals(Fen.toBoard("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").getPawnKey(),
+                board.getPawnKey());
+    }
+
+    @Test
+    @DisplayName("Pawn Structure Terms")
+    public void structure() {
+        Assertions.assertEquals(0, PawnTable.evaluate(Fen.toBoard(Fen.START)));
+        //a lone passed pawn is worth more the further it has gone, in both phases
+        long fourth = PawnTable.evaluate(Fen.toBoard("4k3/8/8/8/4P3/8/8/4K3 w - - 0 1"));
+        long sixth = PawnTable.evaluate(Fen.toBoard("4k3/8/4P3/8/8/8/8/4K3 w - - 0 1"));
+        Assertions.assertTrue(PawnTable.mg(sixth) > PawnTable.mg(fourth));
+        Assertions.assertTrue(PawnTable.eg(sixth) > PawnTable.eg(fourth));
+        //and mirrors exactly for black
+        Assertions.assertEquals(-PawnTable.eg(sixth), PawnTable.eg(PawnTable.evaluate(Fen.toBoard("4k3/8/8/8/8/4p3/8/4K3 w - - 0 1"))));
+        //doubled isolated pawns are worse than healthy ones
+        long doubled = PawnTable.evaluate(Fen.toBoard("4k3/pp6/8/8/8/P7/P7/4K3 w - - 0 1"));
+        Assertions.assertTrue(PawnTable.eg(doubled) < 0);
+    }
+
+    @Test
+    @DisplayName("Cached Evaluation Matches")
+    public void cached() {
+        PawnTable pawns = new PawnTable(64);
+        for(Perft.Position position : Perft.POSITIONS){
+            ChessBoard board = Fen.toBoard(position.fen());
+            MoveList list = new MoveList();
+            MoveGenerator.generate(board, list);
+            for(int i = 0; i < list.size(); i++){
+                long undo = board.makeMove(list.get(i));
+                Assertions.assertEquals(Evaluation.evaluate(board), Evaluation.evaluate(board, pawns), position.name());
+                board.unmakeMove(undo);
+            }
+        }
+        Assertions.assertTrue(pawns.hitRate() > 0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PawnTable(100));
+    }
+
+    @Test
+    @DisplayName("Cache Stays Warm Between Searches")
+    public void warmBetweenSearches() {
+        Engine engine = new Engine();
+        ChessGame game = ChessGame.fromFen("r1bqk2r/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R1BQK2R w KQkq - 0 7");
+        engine.search(game, SearchLimits.depth(5));
+        Searcher searcher = Searcher.current();
+        double cold = searcher.pawnTable().hitRate();
+
+        //with the transposition table cleared the second search visits the same tree again
+        engine.clearHash();
+        engine.search(game, SearchLimits.depth(5));
+        Assertions.assertSame(searcher, Searcher.current());
+        //only the pawn table outlives the search, not the engine's transposition table
+        Assertions.assertTrue(searcher.isIdle());
+        double warm = searcher.pawnTable().hitRate();
+        Assertions.assertTrue(warm > cold && warm > 0.95, "hit rate " + cold + " then " + warm);
+    }
+}
@@ -0,0 +1,106 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Store and Probe")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        Assertions.assertEquals(1 << 16, table.capacity());
+        long key = 0x123456789ABCDEFL;
+        Assertions.assertEquals(0, table.probe(key));
+
+        table.store(key, 1234, -517, 9, TranspositionTable.LOWER);
+        long data = table.probe(key);
+        Assertions.assertEquals(1234, TranspositionTable.move(data));
+        Assertions.assertEquals(-517, TranspositionTable.score(data));
+        Assertions.assertEquals(9, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        Assertions.assertEquals(0, table.probe(key ^ 1));
+
+        table.clear();
+        Assertions.assertEquals(0, table.probe(key));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("Deep Entries Are Kept")
+    public void depthPreferred() {
+        TranspositionTable table = new TranspositionTable(1);
+        //same bucket, different keys
+        long deep = 5L << 32;
+        long shallow = deep | 1;
+        long newer = deep | 2;
+        table.store(deep, 1, 0, 10, TranspositionTable.EXACT);
+        table.store(shallow, 2, 0, 3, TranspositionTable.EXACT);
+        table.store(newer, 3, 0, 2, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(0, table.probe(deep));
+        Assertions.assertEquals(0, table.probe(shallow));
+        Assertions.assertNotEquals(0, table.probe(newer));
+
+        //a later search may replace it
+        table.newSearch();
+        table.store(shallow, 2, 0, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(deep));
+        Assertions.assertNotEquals(0, table.probe(shallow));
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Stored Relative to the Node")
+    public void mateScores() {
+        int mateInThree = Searcher.MATE - 5;
+        int stored = TranspositionTable.scoreToTable(mateInThree, 2);
+        Assertions.assertEquals(mateInThree - 2, TranspositionTable.scoreFromTable(stored, 4));
+        Assertions.assertEquals(-120, TranspositionTable.scoreFromTable(TranspositionTable.scoreToTable(-120, 7), 3));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Produce Torn Entries")
+    public void concurrentAccess() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicInteger torn = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++){
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for(int i = 0; i < 500_000; i++){
+                    //a small key space so the threads keep writing the same buckets
+                    long key = random.nextLong(1 << 18) * 0x9E3779B97F4A7C15L;
+                    table.store(key, move(key), score(key), depth(key), TranspositionTable.EXACT);
+                    long probe = random.nextLong(1 << 18) * 0x9E3779B97F4A7C15L;
+                    long data = table.probe(probe);
+                    //every field is derived from the key, so a mixed up entry would disagree with it
+                    if(data != 0 && (TranspositionTable.move(data) != move(probe) || TranspositionTable.score(data) != score(probe)
+                            || TranspositionTable.depth(data) != depth(probe))){
+                        torn.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        Assertions.assertEquals(0, torn.get());
+    }
+
+    private static int move(long key) {
+        return (int) (key & 0x7FFF);
+    }
+
+    private static int score(long key) {
+        return (short) (key >>> 20);
+    }
+
+    private static int depth(long key) {
+        return (int) (key >>> 40) & 0x7F;
+    }
+}